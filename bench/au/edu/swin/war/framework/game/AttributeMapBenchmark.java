@@ -0,0 +1,100 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.stored.SerializedLocation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares how the block place guard reads
+ * a map's attributes, before and after typed attributes.
+ * <p>
+ * Before, the guard looked up blockPlace, boundary,
+ * bottomLeft and topRight by name and cast each of them.
+ * After, it reads them through their MapAttribute handles.
+ * Each run checks a block inside and a block outside the
+ * boundary, so both branches are measured. Run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=au.edu.swin.war.framework.game.AttributeMapBenchmark
+ *
+ * @version 1.0
+ * @see AttributeMap
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttributeMapBenchmark {
+
+    private HashMap<String, Object> before; // The attributes, as they were kept before.
+    private AttributeMap after; // The attributes, as they are kept now.
+    private int placed; // How many blocks have been placed, to pick where the next one goes.
+
+    @Setup
+    public void setUp() {
+        before = new HashMap<>();
+        after = new AttributeMap();
+        fill(before);
+        fill(after);
+    }
+
+    /**
+     * Gives a set the attributes every map starts with,
+     * plus a boundary.
+     *
+     * @param attributes The set.
+     */
+    private static void fill(HashMap<String, Object> attributes) {
+        attributes.put("allDamage", true);
+        attributes.put("blockBreak", true);
+        attributes.put("blockPlace", true);
+        attributes.put("blockExplode", true);
+        attributes.put("pearlDamage", true);
+        attributes.put("fireSpread", false);
+        attributes.put("mobSpawning", false);
+        attributes.put("timeLock", true);
+        attributes.put("matchDuration", 900L);
+        attributes.put("realTime", false);
+        attributes.put("ffaKills", 20);
+        attributes.put("captureRequirement", 3);
+        attributes.put("captureTime", 180);
+        attributes.put("boundary", true);
+        attributes.put("bottomLeft", new SerializedLocation(-100, 0, -100));
+        attributes.put("topRight", new SerializedLocation(100, 255, 100));
+    }
+
+    @Benchmark
+    public boolean byName() {
+        int x = (placed * 37 & 255) - 128, z = (placed++ * 53 & 255) - 128; // Inside or outside the boundary.
+        if (!(Boolean) before.get("blockPlace")) return true;
+        if (before.containsKey("boundary")) {
+            SerializedLocation bl = (SerializedLocation) before.get("bottomLeft");
+            SerializedLocation tr = (SerializedLocation) before.get("topRight");
+            return x < bl.x() || z < bl.z() || x > tr.x() || z > tr.z();
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean byHandle() {
+        int x = (placed * 37 & 255) - 128, z = (placed++ * 53 & 255) - 128;
+        if (!after.is(MapAttribute.BLOCK_PLACE)) return true;
+        if (after.is(MapAttribute.BOUNDARY)) {
+            SerializedLocation bl = after.get(MapAttribute.BOTTOM_LEFT);
+            SerializedLocation tr = after.get(MapAttribute.TOP_RIGHT);
+            return x < bl.x() || z < bl.z() || x > tr.x() || z > tr.z();
+        }
+        return false;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AttributeMapBenchmark.class.getSimpleName()).build()).run();
+    }
+}
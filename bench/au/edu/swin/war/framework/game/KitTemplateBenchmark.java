@@ -0,0 +1,126 @@
+package au.edu.swin.war.framework.game;
+
+import net.minecraft.server.v1_12_R1.DispenserRegistry;
+import org.bukkit.Material;
+import org.bukkit.craftbukkit.v1_12_R1.inventory.CraftItemStack;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark measures giving a kit to players
+ * over 1,000 respawns.
+ * <p>
+ * clearThenSet clears the inventory and armour before
+ * setting the kit, as WarMap.applyInv() used to. set only
+ * sets the kit, as it does now. snapshot sets the copy
+ * returned by compile(), as a program reading the kit would.
+ * <p>
+ * The inventory is a stand-in that copies every item it is
+ * given into a server item, as CraftBukkit's inventories do,
+ * so no server is needed. Run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=au.edu.swin.war.framework.game.KitTemplateBenchmark
+ *
+ * @version 1.0
+ * @see KitTemplate
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KitTemplateBenchmark {
+
+    private static final int RESPAWNS = 1000;
+
+    private KitTemplate kit; // The kit being given.
+    private PlayerInventory inventory; // The inventory of the player respawning.
+
+    @Setup
+    public void setUp() {
+        DispenserRegistry.c(); // Registers the server's items, so items can be copied.
+        kit = new KitTemplate(null) // Nothing is coloured for players without a team.
+                .set(0, new ItemStack(Material.IRON_SWORD))
+                .set(1, new ItemStack(Material.BOW))
+                .set(2, new ItemStack(Material.COOKED_BEEF, 16))
+                .set(3, new ItemStack(Material.GOLDEN_APPLE, 2))
+                .set(9, new ItemStack(Material.ARROW, 64))
+                .helmet(new ItemStack(Material.IRON_HELMET))
+                .chestplate(new ItemStack(Material.IRON_CHESTPLATE))
+                .leggings(new ItemStack(Material.IRON_LEGGINGS))
+                .boots(new ItemStack(Material.IRON_BOOTS))
+                .offHand(new ItemStack(Material.SHIELD));
+        inventory = inventory();
+    }
+
+    @Benchmark
+    public int clearThenSet() {
+        for (int i = 0; i < RESPAWNS; i++) {
+            inventory.clear();
+            inventory.setArmorContents(new ItemStack[4]);
+            inventory.setContents(kit.finished(null));
+        }
+        return inventory.getSize();
+    }
+
+    @Benchmark
+    public int set() {
+        for (int i = 0; i < RESPAWNS; i++)
+            inventory.setContents(kit.finished(null));
+        return inventory.getSize();
+    }
+
+    @Benchmark
+    public int snapshot() {
+        for (int i = 0; i < RESPAWNS; i++)
+            inventory.setContents(kit.compile(null).toArray(new ItemStack[KitTemplate.SIZE]));
+        return inventory.getSize();
+    }
+
+    /**
+     * Creates a stand-in for a player's inventory. Like
+     * CraftBukkit's, it copies every item put in a slot
+     * into a server item, and empties slots one by one.
+     *
+     * @return The inventory.
+     */
+    private static PlayerInventory inventory() {
+        Object[] slots = new Object[KitTemplate.SIZE];
+        return (PlayerInventory) Proxy.newProxyInstance(PlayerInventory.class.getClassLoader(),
+                new Class<?>[]{PlayerInventory.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setContents":
+                            ItemStack[] contents = (ItemStack[]) args[0];
+                            for (int i = 0; i < slots.length; i++)
+                                slots[i] = i < contents.length ? CraftItemStack.asNMSCopy(contents[i]) : null;
+                            return null;
+                        case "setArmorContents":
+                            ItemStack[] armour = (ItemStack[]) args[0];
+                            for (int i = 0; i < armour.length; i++)
+                                slots[36 + i] = CraftItemStack.asNMSCopy(armour[i]);
+                            return null;
+                        case "clear":
+                            for (int i = 0; i < slots.length; i++)
+                                slots[i] = null;
+                            return null;
+                        case "getSize":
+                            return slots.length;
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(KitTemplateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package au.edu.swin.war.framework.game;
+
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares counting team members before and
+ * after WarTeam kept its own count, by putting 200 players
+ * on the smallest of 16 teams one at a time, then checking
+ * whether any team is full.
+ * <p>
+ * Before, every count went through the Spigot team's
+ * getEntries(), which copies the team's entries into a new
+ * set on CraftBukkit. That copy is what is measured here, so
+ * no server is needed. After, the count is WarTeam.getSize().
+ * Run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=au.edu.swin.war.framework.game.TeamCountBenchmark
+ *
+ * @version 1.0
+ * @see WarTeam#getSize()
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TeamCountBenchmark {
+
+    private static final int TEAMS = 16, PLAYERS = 200;
+
+    private WarTeam[] teams; // The teams, which count their own members.
+    private List<Set<String>> entries; // Each team's scoreboard entries, as Spigot kept them.
+    private UUID[] ids; // The players.
+    private String[] names; // The players' names, as scoreboard entries.
+
+    @Setup
+    public void setUp() {
+        ChatColor[] colors = ChatColor.values();
+        teams = new WarTeam[TEAMS];
+        entries = new ArrayList<>();
+        for (int i = 0; i < TEAMS; i++) {
+            teams[i] = new WarTeam("Team" + i, colors[i % 16], PLAYERS / TEAMS + 1);
+            entries.add(new HashSet<>());
+        }
+        ids = new UUID[PLAYERS];
+        names = new String[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            ids[i] = new UUID(0, i);
+            names[i] = "Player" + i;
+        }
+    }
+
+    @Benchmark
+    public int copiedEntries() {
+        for (Set<String> team : entries)
+            team.clear();
+        for (int i = 0; i < PLAYERS; i++) {
+            int smallest = -1, least = Integer.MAX_VALUE;
+            for (int t = 0; t < TEAMS; t++) {
+                int size = new HashSet<>(entries.get(t)).size(); // What getEntries().size() costs.
+                if (size < least) {
+                    least = size;
+                    smallest = t;
+                }
+            }
+            entries.get(smallest).add(names[i]);
+        }
+        int full = 0;
+        for (int t = 0; t < TEAMS; t++)
+            if (!teams[t].hasRoomFor(new HashSet<>(entries.get(t)).size())) full++;
+        return full;
+    }
+
+    @Benchmark
+    public int counted() {
+        for (WarTeam team : teams)
+            team.clearMembers();
+        for (int i = 0; i < PLAYERS; i++) {
+            WarTeam smallest = null;
+            for (WarTeam team : teams)
+                if (smallest == null || team.getSize() < smallest.getSize()) smallest = team;
+            smallest.addMember(ids[i]);
+        }
+        int full = 0;
+        for (WarTeam team : teams)
+            if (team.isFull()) full++;
+        return full;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TeamCountBenchmark.class.getSimpleName()).build()).run();
+    }
+}
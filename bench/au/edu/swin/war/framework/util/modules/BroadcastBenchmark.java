@@ -0,0 +1,109 @@
+package au.edu.swin.war.framework.util.modules;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.minecraft.server.v1_12_R1.PacketDataSerializer;
+import net.minecraft.server.v1_12_R1.PacketPlayOutChat;
+import org.bukkit.ChatColor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares ways of broadcasting one chat
+ * message to 200 players.
+ * <p>
+ * perRecipient converts the message and builds a packet for
+ * every player, as Bukkit.broadcastMessage() does. shared
+ * converts it and builds the packet once, then writes that
+ * packet for every player, as BroadcastUtility does; each
+ * player's connection writes the packets it is sent. encodeOnce
+ * writes the packet once and copies the bytes, which is as
+ * cheap as it gets, but skips every player's connection.
+ * <p>
+ * Writing the packet to bytes is what each connection's
+ * encoder does, so no server is needed. Run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=au.edu.swin.war.framework.util.modules.BroadcastBenchmark
+ *
+ * @version 1.0
+ * @see BroadcastUtility
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    private static final int RECIPIENTS = 200;
+    private static final String MESSAGE = ChatColor.RED + "There is " + ChatColor.YELLOW + "5" + ChatColor.RED + " minutes remaining!";
+
+    private ByteBuf buffer; // Where each player's connection writes its packet.
+
+    @Setup
+    public void setUp() {
+        buffer = Unpooled.buffer();
+    }
+
+    @TearDown
+    public void tearDown() {
+        buffer.release();
+    }
+
+    @Benchmark
+    public int perRecipient() throws IOException {
+        int written = 0;
+        for (int i = 0; i < RECIPIENTS; i++)
+            written += write(BroadcastUtility.packet(TextComponent.fromLegacyText(MESSAGE)));
+        return written;
+    }
+
+    @Benchmark
+    public int shared() throws IOException {
+        PacketPlayOutChat packet = BroadcastUtility.packet(TextComponent.fromLegacyText(MESSAGE));
+        int written = 0;
+        for (int i = 0; i < RECIPIENTS; i++)
+            written += write(packet);
+        return written;
+    }
+
+    @Benchmark
+    public int encodeOnce() throws IOException {
+        ByteBuf bytes = Unpooled.buffer();
+        BroadcastUtility.packet(TextComponent.fromLegacyText(MESSAGE)).b(new PacketDataSerializer(bytes));
+        int written = 0;
+        for (int i = 0; i < RECIPIENTS; i++) {
+            buffer.clear();
+            buffer.writeBytes(bytes, bytes.readerIndex(), bytes.readableBytes());
+            written += buffer.readableBytes();
+        }
+        bytes.release();
+        return written;
+    }
+
+    /**
+     * Writes a packet to bytes, as a player's
+     * connection would when it is sent.
+     *
+     * @param packet The packet.
+     * @return The number of bytes written.
+     * @throws IOException Thrown if the packet couldn't be written.
+     */
+    private int write(PacketPlayOutChat packet) throws IOException {
+        buffer.clear();
+        packet.b(new PacketDataSerializer(buffer));
+        return buffer.readableBytes();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BroadcastBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,156 @@
+package au.edu.swin.war.framework.util.modules;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This benchmark compares the map copier against the stream
+ * copy that WorldUtility used before it, over a made up map
+ * folder: a level.dat, some small data files, and a number
+ * of region files of the given size.
+ * <p>
+ * Every copy goes into a new folder, which is deleted after
+ * it is timed. Run it with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=au.edu.swin.war.framework.util.modules.MapCopierBenchmark
+ *
+ * @version 1.0
+ * @see MapCopier
+ * @since 1.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class MapCopierBenchmark {
+
+    @Param({"16", "64"})
+    public int regions; // How many region files the map has.
+
+    @Param({"4"})
+    public int regionMegabytes; // How big each region file is.
+
+    @Param({"4"})
+    public int threads; // How many files the map copier copies at once.
+
+    private Path root; // Holds the map and every copy of it.
+    private Path map; // The made up map.
+    private Path dest; // Where the current copy goes.
+    private MapCopier copier; // The copier being measured.
+    private int copies; // How many copies have been made, to name them.
+
+    /**
+     * Makes the map folder. The region files are filled with
+     * random bytes so nothing can skip over empty space.
+     */
+    @Setup(Level.Trial)
+    public void createMap() throws IOException {
+        root = Files.createTempDirectory("war-copier");
+        map = Files.createDirectories(root.resolve("map"));
+        Random random = new Random(0);
+        byte[] region = new byte[regionMegabytes * 1048576];
+        Files.createDirectories(map.resolve("region"));
+        for (int i = 0; i < regions; i++) {
+            random.nextBytes(region);
+            Files.write(map.resolve("region").resolve("r." + (i % 8) + "." + (i / 8) + ".mca"), region);
+        }
+        byte[] small = new byte[2048];
+        random.nextBytes(small);
+        Files.write(map.resolve("level.dat"), small);
+        Files.createDirectories(map.resolve("data"));
+        for (int i = 0; i < 8; i++)
+            Files.write(map.resolve("data").resolve("map_" + i + ".dat"), small);
+        copier = new MapCopier(null, threads); // Only copyTree() is used, which doesn't log.
+    }
+
+    /**
+     * Picks a new folder for the next copy.
+     */
+    @Setup(Level.Invocation)
+    public void nextCopy() {
+        dest = root.resolve("copy" + copies++);
+    }
+
+    /**
+     * Gets rid of the copy that was just timed.
+     */
+    @TearDown(Level.Invocation)
+    public void deleteCopy() throws IOException {
+        delete(dest.toFile());
+    }
+
+    /**
+     * Gets rid of the map, and stops the copier.
+     */
+    @TearDown(Level.Trial)
+    public void deleteMap() throws IOException {
+        copier.shutdown();
+        delete(root.toFile());
+    }
+
+    @Benchmark
+    public long mapCopier() throws IOException {
+        return copier.copyTree(map, dest);
+    }
+
+    @Benchmark
+    public long streamCopy() throws IOException {
+        return streamCopy(map.toFile(), dest.toFile());
+    }
+
+    /**
+     * The copy WorldUtility used before the map copier,
+     * one file at a time, 1024 bytes at a time.
+     *
+     * @param src  Source directory.
+     * @param dest Destination directory.
+     * @return The number of bytes copied.
+     */
+    private static long streamCopy(File src, File dest) throws IOException {
+        long copied = 0;
+        if (src.isDirectory()) {
+            while (!dest.exists())
+                dest.mkdir();
+            String files[] = src.list();
+            for (String file : files != null ? files : new String[0])
+                copied += streamCopy(new File(src, file), new File(dest, file));
+        } else {
+            try (InputStream in = new FileInputStream(src); OutputStream out = new FileOutputStream(dest)) {
+                byte[] buffer = new byte[1024];
+                int length;
+                while ((length = in.read(buffer)) > 0) {
+                    out.write(buffer, 0, length);
+                    copied += length;
+                }
+            }
+        }
+        return copied;
+    }
+
+    /**
+     * Deletes a folder and everything in it.
+     *
+     * @param path The folder.
+     */
+    private static void delete(File path) throws IOException {
+        File[] files = path.listFiles();
+        if (files != null)
+            for (File file : files)
+                delete(file);
+        if (path.exists()) Files.delete(path.toPath());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MapCopierBenchmark.class.getSimpleName()).build()).run();
+    }
+}
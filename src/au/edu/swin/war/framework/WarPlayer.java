@@ -24,6 +24,8 @@ public abstract class WarPlayer {
     private final Player player; // The Spigot's player implementation
     private WarTeam currentTeam; // The team the player is currently on
     private boolean joined; // Whether or not the player is marked as joined
+    private String preferredTeam; // The name of the team the player would like to join, if any
+    private double rating; // The player's skill rating, used by SkillTeamBalancer
     protected final WarManager manager; // Instance of the supercontroller.
 
     /**
@@ -60,6 +62,49 @@ public abstract class WarPlayer {
         this.joined = joined;
     }
 
+    /**
+     * Returns the name of the team the player would
+     * like to be put on when teams are assigned.
+     *
+     * @return The preferred team's name, or null if there isn't one.
+     */
+    public String getPreferredTeam() {
+        return preferredTeam;
+    }
+
+    /**
+     * Sets the team the player would like to be put on.
+     * This is only a preference, and is ignored if
+     * honouring it would unbalance the teams.
+     *
+     * @param preferredTeam The preferred team's name, or null to clear it.
+     */
+    public void setPreferredTeam(String preferredTeam) {
+        this.preferredTeam = preferredTeam;
+    }
+
+    /**
+     * Returns the player's skill rating. The framework
+     * doesn't work this out itself, so it is 0 unless
+     * the program sets it, i.e. from stored statistics.
+     *
+     * @return The player's rating.
+     */
+    public double getRating() {
+        return rating;
+    }
+
+    /**
+     * Sets the player's skill rating. This should be
+     * done before they join, as teams are balanced
+     * using the rating they had when they joined.
+     *
+     * @param rating The player's rating.
+     */
+    public void setRating(double rating) {
+        this.rating = rating;
+    }
+
     /**
      * Returns the team that the player is currently associated with.
      * This is the team that the player currently on during a match.
@@ -84,39 +129,12 @@ public abstract class WarPlayer {
     /**
      * Changes the player's visibility to others based
      * on whether or not they are in the round.
+     *
+     * @see au.edu.swin.war.framework.util.modules.VisibilityUtility
      */
     private void changeVisibility() {
-        if (isPlaying()) {
-            player.setCollidable(true);
-            // If they are playing, everyone can see this player.
-            // They however, cannot see spectators.
-            for (WarPlayer dp : manager.getWarPlayers().values())
-                if (dp.equals(this)) continue;
-                else if (dp.isPlaying()) {
-                    // They are both playing, so they can both see each other.
-                    dp.getPlayer().showPlayer(player);
-                    player.showPlayer(dp.getPlayer());
-                } else {
-                    // The other player is spectating, so this player cannot see them.
-                    dp.getPlayer().showPlayer(player);
-                    player.hidePlayer(dp.getPlayer());
-                }
-        } else {
-            player.setCollidable(false);
-            // If they are spectating, only spectators can see this player.
-            // They can see others playing as well.
-            for (WarPlayer dp : manager.getWarPlayers().values())
-                if (dp.equals(this)) continue;
-                else if (dp.isPlaying()) {
-                    // The other player is playing, so they cannot see this player.
-                    dp.getPlayer().hidePlayer(player);
-                    player.showPlayer(dp.getPlayer());
-                } else {
-                    // The other player is spectating, so they can see each other.
-                    dp.getPlayer().showPlayer(player);
-                    player.showPlayer(dp.getPlayer());
-                }
-        }
+        // Only the visibility between this player and everyone else changes, if anything.
+        manager.visibility().update(this);
     }
 
     /**
@@ -0,0 +1,291 @@
+package au.edu.swin.war.framework.game;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * This class stores a map's attributes.
+ * <p>
+ * Attributes with a MapAttribute handle are kept in flat
+ * primitive arrays, so listeners can read them without a
+ * hash lookup or unboxing. This is still a key/value set
+ * too, so attr().get("blockPlace") keeps working. Anything
+ * written through put() or remove() is written through to
+ * the arrays as well.
+ * <p>
+ * Every procedure that changes the key/value set is written
+ * through. The key, value and entry views can be read, but
+ * not changed, since changes through them would bypass the
+ * arrays.
+ *
+ * @version 1.0
+ * @see MapAttribute
+ * @since 1.1
+ */
+public final class AttributeMap extends HashMap<String, Object> {
+
+    private boolean[] flags; // The values of true/false attributes.
+    private long[] numbers; // The values of number attributes.
+    private Object[] values; // The values of any other attributes.
+    private boolean[] present; // Whether or not each attribute has been set.
+
+    /**
+     * Creates an empty attribute set,
+     * sized for every attribute registered so far.
+     */
+    AttributeMap() {
+        int[] counts = MapAttribute.counts();
+        flags = new boolean[counts[0]];
+        numbers = new long[counts[1]];
+        values = new Object[counts[2]];
+        present = new boolean[counts[3]];
+    }
+
+    /**
+     * Returns whether or not an attribute has been set.
+     *
+     * @param key The attribute's handle.
+     * @return Whether the attribute is set.
+     */
+    public boolean has(MapAttribute<?> key) {
+        return key.slot() < present.length && present[key.slot()];
+    }
+
+    /**
+     * Returns the value of a true/false attribute.
+     * An attribute that is not set is false.
+     *
+     * @param key The attribute's handle.
+     * @return The attribute's value.
+     */
+    public boolean is(MapAttribute<Boolean> key) {
+        return key.index() < flags.length && flags[key.index()];
+    }
+
+    /**
+     * Returns the value of a number attribute.
+     * An attribute that is not set is 0.
+     *
+     * @param key The attribute's handle.
+     * @return The attribute's value.
+     */
+    public long num(MapAttribute<? extends Number> key) {
+        return key.index() < numbers.length ? numbers[key.index()] : 0;
+    }
+
+    /**
+     * Returns the value of an attribute.
+     *
+     * @param key The attribute's handle.
+     * @param <T> The type of the attribute's value.
+     * @return The attribute's value, or null if it is not set.
+     */
+    public <T> T get(MapAttribute<T> key) {
+        if (!has(key)) return null;
+        switch (key.kind()) {
+            case FLAG:
+                return key.cast(flags[key.index()]);
+            case NUMBER:
+                return key.cast(numbers[key.index()]);
+            default:
+                return key.cast(values[key.index()]);
+        }
+    }
+
+    /**
+     * Sets the value of an attribute.
+     *
+     * @param key   The attribute's handle.
+     * @param value The attribute's value.
+     * @param <T>   The type of the attribute's value.
+     */
+    public <T> void set(MapAttribute<T> key, T value) {
+        put(key.getName(), value);
+    }
+
+    /**
+     * Writes a value into the arrays, if its key has a handle.
+     *
+     * @param key   The attribute's name.
+     * @param value The attribute's value, or null if it was removed.
+     * @return The value to keep in the key/value set.
+     */
+    private Object store(Object key, Object value) {
+        MapAttribute<?> attribute = MapAttribute.byName(key);
+        if (attribute == null) return value; // Not a typed attribute, only the key/value set holds it.
+        grow();
+        int index = attribute.index();
+        if (value == null) {
+            present[attribute.slot()] = false;
+            switch (attribute.kind()) {
+                case FLAG:
+                    flags[index] = false;
+                    break;
+                case NUMBER:
+                    numbers[index] = 0;
+                    break;
+                default:
+                    values[index] = null;
+            }
+            return null;
+        }
+        Object typed = attribute.cast(value); // Fail now rather than in a listener later.
+        present[attribute.slot()] = true;
+        switch (attribute.kind()) {
+            case FLAG:
+                flags[index] = (Boolean) typed;
+                break;
+            case NUMBER:
+                numbers[index] = ((Number) typed).longValue();
+                break;
+            default:
+                values[index] = typed;
+        }
+        return typed;
+    }
+
+    /**
+     * Grows the arrays if attributes have been
+     * registered since this set was created.
+     */
+    private void grow() {
+        int[] counts = MapAttribute.counts();
+        if (flags.length < counts[0]) flags = Arrays.copyOf(flags, counts[0]);
+        if (numbers.length < counts[1]) numbers = Arrays.copyOf(numbers, counts[1]);
+        if (values.length < counts[2]) values = Arrays.copyOf(values, counts[2]);
+        if (present.length < counts[3]) present = Arrays.copyOf(present, counts[3]);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return super.put(key, store(key, value));
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ?> map) {
+        for (Map.Entry<? extends String, ?> entry : map.entrySet())
+            put(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Object current = super.get(key);
+        return current == null ? put(key, value) : current;
+    }
+
+    @Override
+    public Object replace(String key, Object value) {
+        return containsKey(key) ? put(key, value) : null;
+    }
+
+    @Override
+    public boolean replace(String key, Object oldValue, Object newValue) {
+        if (!containsKey(key) || !Objects.equals(super.get(key), oldValue)) return false;
+        put(key, newValue);
+        return true;
+    }
+
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ?> mapping) {
+        Object current = super.get(key);
+        if (current != null) return current;
+        Object value = mapping.apply(key);
+        if (value == null) return null;
+        put(key, value);
+        return super.get(key);
+    }
+
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ?> remapping) {
+        Object current = super.get(key);
+        if (current == null) return null;
+        return update(key, remapping.apply(key, current));
+    }
+
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ?> remapping) {
+        return update(key, remapping.apply(key, super.get(key)));
+    }
+
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ?> remapping) {
+        Object current = super.get(key);
+        return update(key, current == null ? value : remapping.apply(current, value));
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Object, ?> function) {
+        for (String key : new ArrayList<>(super.keySet()))
+            put(key, function.apply(key, super.get(key)));
+    }
+
+    /**
+     * Sets or removes a value, as compute() and merge() do.
+     *
+     * @param key   The attribute's name.
+     * @param value The new value, or null to remove it.
+     * @return The value now kept in the key/value set.
+     */
+    private Object update(String key, Object value) {
+        if (value == null) {
+            remove(key);
+            return null;
+        }
+        put(key, value);
+        return super.get(key);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(super.keySet());
+    }
+
+    @Override
+    public Collection<Object> values() {
+        return Collections.unmodifiableCollection(super.values());
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        // Wrapped as a whole map, so setValue() on each entry is blocked too.
+        return Collections.unmodifiableMap(new AbstractMap<String, Object>() {
+            @Override
+            public Set<Map.Entry<String, Object>> entrySet() {
+                return AttributeMap.super.entrySet();
+            }
+        }).entrySet();
+    }
+
+    @Override
+    public Object remove(Object key) {
+        store(key, null);
+        return super.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!containsKey(key) || !Objects.equals(super.get(key), value)) return false;
+        remove(key);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(flags, false);
+        Arrays.fill(numbers, 0);
+        Arrays.fill(values, null);
+        Arrays.fill(present, false);
+    }
+
+    @Override
+    public AttributeMap clone() {
+        AttributeMap copy = (AttributeMap) super.clone();
+        copy.flags = flags.clone(); // The copy must not share arrays with this set.
+        copy.numbers = numbers.clone();
+        copy.values = values.clone();
+        copy.present = present.clone();
+        return copy;
+    }
+}
@@ -0,0 +1,68 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.util.modules.ItemUtility;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * This class decides which items are not
+ * dropped by a player when they die.
+ * <p>
+ * An item is not dropped if its type is disabled, or
+ * if it has any of the disabled NBT tags, such as the
+ * tag that marks an item as part of a kit. Everything
+ * is worked out when the policy is created, so checking
+ * a drop doesn't create anything.
+ *
+ * @version 1.0
+ * @see org.bukkit.event.entity.PlayerDeathEvent
+ * @since 1.1
+ */
+public final class DropPolicy {
+
+    private final Set<Material> materials; // Item types that are not dropped.
+    private final String[] tags; // NBT tags that stop an item from being dropped.
+
+    /**
+     * Creates a drop policy.
+     *
+     * @param materials Item types that are not dropped.
+     * @param tags      NBT tags that stop an item from being dropped.
+     */
+    public DropPolicy(Material[] materials, String... tags) {
+        EnumSet<Material> set = EnumSet.noneOf(Material.class);
+        Collections.addAll(set, materials);
+        this.materials = set;
+        this.tags = tags.clone();
+    }
+
+    /**
+     * Creates a drop policy that doesn't drop any
+     * items that were given as part of a kit.
+     *
+     * @param materials Item types that are not dropped.
+     * @return The drop policy.
+     * @see ItemUtility#KIT_TAG
+     */
+    public static DropPolicy withKits(Material[] materials) {
+        return new DropPolicy(materials, ItemUtility.KIT_TAG);
+    }
+
+    /**
+     * Returns whether or not an item should not be dropped.
+     *
+     * @param item The item that would be dropped.
+     * @return Whether the item is not dropped.
+     */
+    public boolean isDisabled(ItemStack item) {
+        if (item == null) return false;
+        if (materials.contains(item.getType())) return true;
+        for (String tag : tags)
+            if (ItemUtility.hasTag(item, tag)) return true;
+        return false;
+    }
+}
@@ -0,0 +1,192 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.WarPlayer;
+import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.modules.ItemUtility;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.potion.PotionEffect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * This class holds a kit that is defined once, and
+ * then given to players every time they spawn.
+ * <p>
+ * The first time the kit is given to a team, every item is
+ * copied, leather armour is coloured for the team, and the
+ * items are tagged as part of a kit. The finished inventory
+ * is kept for that team colour, so spawning after that only
+ * sets the player's whole inventory at once.
+ * <p>
+ * Define the kit in the map's constructor or init(), i.e.
+ * setKit(new KitTemplate(main).set(0, sword).helmet(helmet));
+ *
+ * @version 1.0
+ * @see WarMap#setKit(KitTemplate)
+ * @since 1.1
+ */
+public class KitTemplate {
+
+    public static final int SIZE = 41; // Slots in a player's inventory: 36 items, 4 armour and an off hand.
+    private static final int BOOTS = 36, LEGGINGS = 37, CHESTPLATE = 38, HELMET = 39, OFF_HAND = 40;
+
+    private final WarManager main; // The supercontroller, to colour armour.
+    private final ItemStack[] slots; // The kit as it was defined, by inventory slot.
+    private final List<PotionEffect> effects; // Potion effects given with the kit.
+    private final EnumMap<ChatColor, ItemStack[]> compiled; // The finished inventory, by team colour.
+    private ItemStack[] neutral; // The finished inventory for players without a team.
+
+    /**
+     * Creates an empty kit.
+     *
+     * @param main The supercontroller.
+     */
+    public KitTemplate(WarManager main) {
+        this.main = main;
+        this.slots = new ItemStack[SIZE];
+        this.effects = new ArrayList<>();
+        this.compiled = new EnumMap<>(ChatColor.class);
+    }
+
+    /**
+     * Puts an item in a slot of the kit.
+     *
+     * @param slot The slot, 0 to 35 for items, 36 to 39 for armour and 40 for the off hand.
+     * @param item The item, or null for nothing.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate set(int slot, ItemStack item) {
+        slots[slot] = item == null ? null : item.clone(); // Later changes to the item don't change the kit.
+        changed();
+        return this;
+    }
+
+    /**
+     * Sets the helmet of the kit.
+     *
+     * @param item The item, or null for nothing.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate helmet(ItemStack item) {
+        return set(HELMET, item);
+    }
+
+    /**
+     * Sets the chestplate of the kit.
+     *
+     * @param item The item, or null for nothing.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate chestplate(ItemStack item) {
+        return set(CHESTPLATE, item);
+    }
+
+    /**
+     * Sets the leggings of the kit.
+     *
+     * @param item The item, or null for nothing.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate leggings(ItemStack item) {
+        return set(LEGGINGS, item);
+    }
+
+    /**
+     * Sets the boots of the kit.
+     *
+     * @param item The item, or null for nothing.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate boots(ItemStack item) {
+        return set(BOOTS, item);
+    }
+
+    /**
+     * Sets the item in the off hand of the kit.
+     *
+     * @param item The item, or null for nothing.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate offHand(ItemStack item) {
+        return set(OFF_HAND, item);
+    }
+
+    /**
+     * Adds a potion effect that is given with the kit.
+     *
+     * @param effect The potion effect.
+     * @return This kit, to keep defining it.
+     */
+    public KitTemplate effect(PotionEffect effect) {
+        effects.add(effect);
+        return this;
+    }
+
+    /**
+     * Gives the kit to a player, replacing their whole
+     * inventory, armour and off hand included, so it doesn't
+     * need to be cleared first. Their armour is coloured for
+     * their team.
+     *
+     * @param target The player.
+     */
+    public void apply(WarPlayer target) {
+        Player pl = target.getPlayer();
+        pl.getInventory().setContents(finished(target.getCurrentTeam())); // The items are copied in, not shared.
+        for (int i = 0; i < effects.size(); i++)
+            pl.addPotionEffect(effects.get(i), true);
+    }
+
+    /**
+     * Returns a copy of the finished inventory for a team.
+     * Neither the list nor its items can be used to change
+     * the kit.
+     *
+     * @param team The team, or null if the player has none.
+     * @return Every slot of the inventory, with null for empty slots.
+     */
+    public List<ItemStack> compile(WarTeam team) {
+        ItemStack[] finished = finished(team);
+        ItemStack[] copy = new ItemStack[SIZE];
+        for (int slot = 0; slot < SIZE; slot++)
+            if (finished[slot] != null) copy[slot] = finished[slot].clone();
+        return Collections.unmodifiableList(Arrays.asList(copy));
+    }
+
+    /**
+     * Returns the finished inventory for a team,
+     * building it the first time it is needed.
+     *
+     * @param team The team, or null if the player has none.
+     * @return Every slot of the inventory. This is the kit's own copy, do not change it.
+     */
+    ItemStack[] finished(WarTeam team) {
+        ItemStack[] result = team == null ? neutral : compiled.get(team.getTeamColor());
+        if (result != null) return result;
+        result = new ItemStack[SIZE];
+        for (int slot = 0; slot < SIZE; slot++) {
+            if (slots[slot] == null) continue;
+            ItemStack item = slots[slot].clone();
+            if (team != null) item = main.items().colorArmor(item, team); // Only changes leather armour.
+            result[slot] = ItemUtility.tag(item, ItemUtility.KIT_TAG); // Already a server item, so it is quick to copy.
+        }
+        if (team == null) neutral = result;
+        else compiled.put(team.getTeamColor(), result);
+        return result;
+    }
+
+    /**
+     * Forgets every finished inventory,
+     * since the kit has changed.
+     */
+    private void changed() {
+        compiled.clear();
+        neutral = null;
+    }
+}
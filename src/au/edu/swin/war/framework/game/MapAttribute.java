@@ -0,0 +1,218 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.stored.SerializedLocation;
+
+import java.util.HashMap;
+
+/**
+ * This class is a typed handle to a map attribute.
+ * <p>
+ * Looking an attribute up by its name means hashing the
+ * name and unboxing the value every time, which adds up
+ * in listeners that run on every block placed. A handle
+ * is resolved once, and points straight at a primitive
+ * slot in the map's AttributeMap instead.
+ * <p>
+ * Handles are registered by name, so asking for the same
+ * name twice returns the same handle. Gamemodes and maps
+ * can register their own attributes like so:
+ * MapAttribute&lt;Integer&gt; KILLS = MapAttribute.integer("ffaKills");
+ *
+ * @param <T> The type of the attribute's value.
+ * @version 1.0
+ * @see AttributeMap
+ * @since 1.1
+ */
+public final class MapAttribute<T> {
+
+    private static final HashMap<String, MapAttribute<?>> registry = new HashMap<>(); // Every handle, by name.
+    private static int flagCount, numberCount, valueCount, slotCount; // How many handles of each kind exist.
+
+    /* Attributes that the framework itself uses. */
+    public static final MapAttribute<Boolean> ALL_DAMAGE = flag("allDamage");
+    public static final MapAttribute<Boolean> BLOCK_BREAK = flag("blockBreak");
+    public static final MapAttribute<Boolean> BLOCK_PLACE = flag("blockPlace");
+    public static final MapAttribute<Boolean> BLOCK_EXPLODE = flag("blockExplode");
+    public static final MapAttribute<Boolean> PEARL_DAMAGE = flag("pearlDamage");
+    public static final MapAttribute<Boolean> FIRE_SPREAD = flag("fireSpread");
+    public static final MapAttribute<Boolean> MOB_SPAWNING = flag("mobSpawning");
+    public static final MapAttribute<Boolean> TIME_LOCK = flag("timeLock");
+    public static final MapAttribute<Boolean> BOUNDARY = flag("boundary");
+    public static final MapAttribute<Boolean> REAL_TIME = flag("realTime");
+    public static final MapAttribute<Long> MATCH_DURATION = number("matchDuration");
+    public static final MapAttribute<Long> TIME_LOCK_TIME = number("timeLockTime");
+    public static final MapAttribute<Integer> FFA_KILLS = integer("ffaKills");
+    public static final MapAttribute<Integer> CAPTURE_REQUIREMENT = integer("captureRequirement");
+    public static final MapAttribute<Integer> CAPTURE_TIME = integer("captureTime");
+    public static final MapAttribute<Integer> BUILD_HEIGHT = integer("buildHeight");
+    public static final MapAttribute<Integer> PLATEAU = integer("plateau");
+    public static final MapAttribute<SerializedLocation> BOTTOM_LEFT = value("bottomLeft", SerializedLocation.class);
+    public static final MapAttribute<SerializedLocation> TOP_RIGHT = value("topRight", SerializedLocation.class);
+
+    private final String name; // The attribute's name, as used in attr().
+    private final Kind kind; // How the attribute's value is stored.
+    private final Class<T> type; // The type of the attribute's value.
+    private final int index; // Where the value is stored amongst attributes of the same kind.
+    private final int slot; // Where the attribute's presence is stored amongst all attributes.
+
+    /**
+     * Creates a handle. Use the static procedures instead.
+     *
+     * @param name  The attribute's name.
+     * @param kind  How the value is stored.
+     * @param type  The type of the value.
+     * @param index The index amongst attributes of the same kind.
+     * @param slot  The index amongst all attributes.
+     */
+    private MapAttribute(String name, Kind kind, Class<T> type, int index, int slot) {
+        this.name = name;
+        this.kind = kind;
+        this.type = type;
+        this.index = index;
+        this.slot = slot;
+    }
+
+    /**
+     * Returns the handle of a true/false attribute.
+     *
+     * @param name The attribute's name.
+     * @return The attribute's handle.
+     */
+    public static MapAttribute<Boolean> flag(String name) {
+        return register(name, Kind.FLAG, Boolean.class);
+    }
+
+    /**
+     * Returns the handle of a whole number attribute.
+     *
+     * @param name The attribute's name.
+     * @return The attribute's handle.
+     */
+    public static MapAttribute<Long> number(String name) {
+        return register(name, Kind.NUMBER, Long.class);
+    }
+
+    /**
+     * Returns the handle of a whole number attribute
+     * that is read as an Integer through attr().
+     *
+     * @param name The attribute's name.
+     * @return The attribute's handle.
+     */
+    public static MapAttribute<Integer> integer(String name) {
+        return register(name, Kind.NUMBER, Integer.class);
+    }
+
+    /**
+     * Returns the handle of an attribute holding any object.
+     *
+     * @param name The attribute's name.
+     * @param type The type of the attribute's value.
+     * @param <T>  The type of the attribute's value.
+     * @return The attribute's handle.
+     */
+    public static <T> MapAttribute<T> value(String name, Class<T> type) {
+        return register(name, Kind.VALUE, type);
+    }
+
+    /**
+     * Returns the handle registered under a name.
+     *
+     * @param name The attribute's name.
+     * @return The attribute's handle, or null if nothing is registered.
+     */
+    static synchronized MapAttribute<?> byName(Object name) {
+        return registry.get(name);
+    }
+
+    /**
+     * Returns how many attributes have been registered
+     * of each kind, so stores can be sized to fit.
+     *
+     * @return Flags, numbers, values and all attributes.
+     */
+    static synchronized int[] counts() {
+        return new int[]{flagCount, numberCount, valueCount, slotCount};
+    }
+
+    /**
+     * Registers a handle, or returns the one that is already
+     * registered under the same name.
+     *
+     * @param name The attribute's name.
+     * @param kind How the value is stored.
+     * @param type The type of the value.
+     * @param <T>  The type of the value.
+     * @return The attribute's handle.
+     */
+    @SuppressWarnings("unchecked")
+    private static synchronized <T> MapAttribute<T> register(String name, Kind kind, Class<T> type) {
+        MapAttribute<?> found = registry.get(name);
+        if (found != null) {
+            if (found.type != type)
+                throw new IllegalArgumentException("Attribute " + name + " is already registered as " + found.type.getSimpleName());
+            return (MapAttribute<T>) found;
+        }
+        int index = kind == Kind.FLAG ? flagCount++ : kind == Kind.NUMBER ? numberCount++ : valueCount++;
+        MapAttribute<T> created = new MapAttribute<>(name, kind, type, index, slotCount++);
+        registry.put(name, created);
+        return created;
+    }
+
+    /**
+     * Returns the attribute's name, as used in attr().
+     *
+     * @return The attribute's name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the type of the attribute's value.
+     *
+     * @return The value's type.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    int index() {
+        return index;
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    /**
+     * Converts a value from attr() to this attribute's type.
+     * Any number is accepted for a number attribute.
+     *
+     * @param value The value.
+     * @return The converted value.
+     */
+    T cast(Object value) {
+        if (type == Long.class && value instanceof Number) return type.cast(((Number) value).longValue());
+        if (type == Integer.class && value instanceof Number) return type.cast(((Number) value).intValue());
+        if (!type.isInstance(value))
+            throw new IllegalArgumentException("Attribute " + name + " must be a " + type.getSimpleName() + ", not " + value);
+        return type.cast(value);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * How an attribute's value is stored.
+     */
+    enum Kind {
+        FLAG, NUMBER, VALUE
+    }
+}
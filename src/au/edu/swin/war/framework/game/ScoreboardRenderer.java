@@ -0,0 +1,258 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.WarPlayer;
+import au.edu.swin.war.framework.util.WarManager;
+import net.minecraft.server.v1_12_R1.*;
+import org.bukkit.craftbukkit.v1_12_R1.entity.CraftPlayer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * This class draws sidebars for players, sending only
+ * the lines that changed since each player last saw it.
+ * <p>
+ * The sidebar is sent with packets, as an objective that
+ * only exists on the client. Every player can be shown a
+ * different sidebar while still being shown the gamemode's
+ * scoreboard, s(), so team colours keep working and no
+ * Spigot scoreboard is created per player.
+ * <p>
+ * Gamemodes should build a Sidebar for each thing that can
+ * be seen, such as one per team, in updateScoreboard(), and
+ * pass them here. How long rendering takes is recorded, so
+ * it can be checked with getAverageRenderNanos().
+ *
+ * @version 1.0
+ * @see WarMode#sidebar()
+ * @since 1.1
+ */
+public class ScoreboardRenderer {
+
+    private static final String OBJECTIVE = "war.sidebar"; // The name of the objective on the client.
+    private static final int SIDEBAR = 1; // The sidebar display slot.
+
+    private final WarManager main; // The supercontroller.
+    private final Scoreboard board; // Builds packets. It is never shown to anyone.
+    private final ScoreboardObjective objective; // The objective that every sidebar is sent as.
+    private final HashMap<UUID, Sidebar> shown; // What each player was last shown.
+    private long lastNanos; // How long the last render took.
+    private long totalNanos; // How long every render has taken.
+    private long renders; // How many renders there have been.
+    private long packets; // How many packets have been sent.
+
+    /**
+     * Creates a renderer that hasn't shown anything.
+     *
+     * @param main The supercontroller.
+     */
+    public ScoreboardRenderer(WarManager main) {
+        this.main = main;
+        this.board = new Scoreboard();
+        this.objective = new ScoreboardObjective(board, OBJECTIVE, IScoreboardCriteria.b); // A dummy objective.
+        this.shown = new HashMap<>();
+    }
+
+    /**
+     * Shows a sidebar to a player.
+     *
+     * @param viewer The player.
+     * @param view   The sidebar.
+     */
+    public void render(WarPlayer viewer, Sidebar view) {
+        long start = System.nanoTime();
+        draw(viewer, view);
+        record(start);
+    }
+
+    /**
+     * Shows the same sidebar to everyone.
+     *
+     * @param view The sidebar.
+     */
+    public void render(Sidebar view) {
+        long start = System.nanoTime();
+        for (WarPlayer viewer : main.getWarPlayers().values())
+            draw(viewer, view);
+        record(start);
+    }
+
+    /**
+     * Shows each player the sidebar of their team. The sidebar
+     * of each team is only built once, however many players
+     * are on it. Spectators are shown their own sidebar.
+     *
+     * @param teams      Builds the sidebar of a team.
+     * @param spectators The sidebar of spectators, or null to hide it.
+     */
+    public void renderTeams(Function<WarTeam, Sidebar> teams, Sidebar spectators) {
+        long start = System.nanoTime();
+        IdentityHashMap<WarTeam, Sidebar> built = new IdentityHashMap<>();
+        for (WarPlayer viewer : main.getWarPlayers().values()) {
+            WarTeam team = viewer.getCurrentTeam();
+            draw(viewer, team == null ? spectators : built.computeIfAbsent(team, teams));
+        }
+        record(start);
+    }
+
+    /**
+     * Shows each player their own sidebar. Players for whom
+     * the same sidebar is returned share it, so it is best to
+     * return the same one for anybody who sees the same thing.
+     *
+     * @param viewers The players.
+     * @param views   Builds the sidebar of a player, or returns null to hide it.
+     */
+    public void render(Collection<WarPlayer> viewers, Function<WarPlayer, Sidebar> views) {
+        long start = System.nanoTime();
+        for (WarPlayer viewer : viewers)
+            draw(viewer, views.apply(viewer));
+        record(start);
+    }
+
+    /**
+     * Hides the sidebar of a player.
+     *
+     * @param viewer The player.
+     */
+    public void hide(WarPlayer viewer) {
+        draw(viewer, null);
+    }
+
+    /**
+     * Hides the sidebar of everyone who can see one.
+     */
+    public void clear() {
+        for (WarPlayer viewer : main.getWarPlayers().values())
+            draw(viewer, null);
+        shown.clear();
+    }
+
+    /**
+     * Forgets what a player was shown. This should
+     * be called when the player leaves the server.
+     *
+     * @param target The player's UUID.
+     */
+    public void forget(UUID target) {
+        shown.remove(target);
+    }
+
+    /**
+     * Brings a player's sidebar up to date, sending
+     * only what is different to what they last saw.
+     *
+     * @param viewer The player.
+     * @param view   The sidebar, or null to hide it.
+     */
+    private void draw(WarPlayer viewer, Sidebar view) {
+        UUID id = viewer.getPlayer().getUniqueId();
+        Sidebar last = shown.get(id);
+        if (last == view) return; // Already showing it, nothing has changed.
+        PlayerConnection connection = ((CraftPlayer) viewer.getPlayer()).getHandle().playerConnection;
+        if (view == null) {
+            shown.remove(id);
+            objective.setDisplayName(last.getTitle());
+            send(connection, new PacketPlayOutScoreboardObjective(objective, 1)); // Removes the objective.
+            return;
+        }
+        shown.put(id, view);
+        if (last == null) {
+            objective.setDisplayName(view.getTitle());
+            send(connection, new PacketPlayOutScoreboardObjective(objective, 0)); // Creates the objective.
+            send(connection, new PacketPlayOutScoreboardDisplayObjective(SIDEBAR, objective));
+        } else if (!last.getTitle().equals(view.getTitle())) {
+            objective.setDisplayName(view.getTitle());
+            send(connection, new PacketPlayOutScoreboardObjective(objective, 2)); // Changes the title.
+        }
+        if (last != null)
+            for (int i = 0; i < last.size(); i++)
+                if (view.indexOf(last.getLine(i)) == -1) // The line is gone.
+                    send(connection, new PacketPlayOutScoreboardScore(last.getLine(i), objective));
+        for (int i = 0; i < view.size(); i++) {
+            int was = last == null ? -1 : last.indexOf(view.getLine(i));
+            if (was == -1 || last.score(was) != view.score(i)) // The line is new, or has moved.
+                send(connection, packet(view, i));
+        }
+    }
+
+    /**
+     * Returns the packet that puts a line in its place.
+     * It is only built once, then sent to everyone.
+     *
+     * @param view The sidebar.
+     * @param line The line.
+     * @return The packet.
+     */
+    private Packet<?> packet(Sidebar view, int line) {
+        if (view.packets == null) view.packets = new Packet<?>[view.size()];
+        if (view.packets[line] == null) {
+            ScoreboardScore score = new ScoreboardScore(board, objective, view.getLine(line));
+            score.setScore(view.score(line));
+            view.packets[line] = new PacketPlayOutScoreboardScore(score);
+        }
+        return view.packets[line];
+    }
+
+    /**
+     * Sends a packet to a player.
+     *
+     * @param connection The player's connection.
+     * @param packet     The packet.
+     */
+    private void send(PlayerConnection connection, Packet<?> packet) {
+        connection.sendPacket(packet);
+        packets++;
+    }
+
+    /**
+     * Records how long a render took.
+     *
+     * @param start When the render started.
+     */
+    private void record(long start) {
+        lastNanos = System.nanoTime() - start;
+        totalNanos += lastNanos;
+        renders++;
+    }
+
+    /**
+     * Returns how long the last render took.
+     *
+     * @return The time taken, in nanoseconds.
+     */
+    public long getLastRenderNanos() {
+        return lastNanos;
+    }
+
+    /**
+     * Returns how long a render takes on average.
+     *
+     * @return The average time taken, in nanoseconds.
+     */
+    public long getAverageRenderNanos() {
+        return renders == 0 ? 0 : totalNanos / renders;
+    }
+
+    /**
+     * Returns how many packets have been sent,
+     * to compare against how many renders there were.
+     *
+     * @return The number of packets sent.
+     */
+    public long getPacketsSent() {
+        return packets;
+    }
+
+    /**
+     * Returns how many renders there have been.
+     *
+     * @return The number of renders.
+     */
+    public long getRenders() {
+        return renders;
+    }
+}
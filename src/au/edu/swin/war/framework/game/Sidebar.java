@@ -0,0 +1,133 @@
+package au.edu.swin.war.framework.game;
+
+import net.minecraft.server.v1_12_R1.Packet;
+import org.bukkit.ChatColor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class holds what a sidebar should look like:
+ * a title and up to 15 lines, from top to bottom.
+ * <p>
+ * A sidebar can't be changed once it is created, so
+ * the renderer can tell it has already been shown by
+ * reference alone. Build one sidebar for everyone who
+ * sees the same thing, such as a whole team, rather
+ * than one per player.
+ *
+ * @version 1.0
+ * @see ScoreboardRenderer
+ * @since 1.1
+ */
+public final class Sidebar {
+
+    public static final int MAX_LINES = 15; // The most lines the client shows.
+    public static final int MAX_TITLE = 32; // The longest title the client accepts.
+    public static final int MAX_LINE = 40; // The longest line the client accepts.
+
+    private final String title; // The title, shown above the lines.
+    private final String[] entries; // The lines, from top to bottom, each one different.
+    Packet<?>[] packets; // The score packet of each line, built once by the renderer.
+
+    /**
+     * Creates a sidebar.
+     *
+     * @param title The title.
+     * @param lines The lines, from top to bottom.
+     */
+    public Sidebar(String title, List<String> lines) {
+        this(title, lines.toArray(new String[0]));
+    }
+
+    /**
+     * Creates a sidebar. Lines that are too long are cut short,
+     * and lines that are the same as another are made different
+     * with an invisible colour code, so they can all be shown.
+     *
+     * @param title The title.
+     * @param lines The lines, from top to bottom.
+     */
+    public Sidebar(String title, String... lines) {
+        this.title = title.length() > MAX_TITLE ? title.substring(0, MAX_TITLE) : title;
+        this.entries = new String[Math.min(lines.length, MAX_LINES)];
+        for (int i = 0; i < entries.length; i++) {
+            String line = lines[i].length() > MAX_LINE ? lines[i].substring(0, MAX_LINE) : lines[i];
+            while (indexOf(line, i) != -1) {
+                if (line.length() + 2 > MAX_LINE) {
+                    line = line.substring(0, MAX_LINE - 2) + ChatColor.values()[i]; // No room, so swap the end.
+                    break;
+                }
+                line += ChatColor.RESET;
+            }
+            entries[i] = line;
+        }
+    }
+
+    /**
+     * Returns the title.
+     *
+     * @return The title.
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Returns the number of lines.
+     *
+     * @return The number of lines.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * Returns a line, as it is sent to the client.
+     *
+     * @param line The line, from 0 at the top.
+     * @return The line's text.
+     */
+    public String getLine(int line) {
+        return entries[line];
+    }
+
+    /**
+     * Returns the score that puts a line in its place.
+     * The top line has the highest score.
+     *
+     * @param line The line, from 0 at the top.
+     * @return The line's score.
+     */
+    int score(int line) {
+        return entries.length - 1 - line;
+    }
+
+    /**
+     * Returns where a line is in this sidebar.
+     *
+     * @param entry The line's text.
+     * @param limit Only the lines above this are searched.
+     * @return The line, or -1 if it isn't there.
+     */
+    int indexOf(String entry, int limit) {
+        for (int i = 0; i < limit; i++)
+            if (entries[i].equals(entry)) return i;
+        return -1;
+    }
+
+    /**
+     * Returns where a line is in this sidebar.
+     *
+     * @param entry The line's text.
+     * @return The line, or -1 if it isn't there.
+     */
+    int indexOf(String entry) {
+        return indexOf(entry, entries.length);
+    }
+
+    @Override
+    public String toString() {
+        return title + " " + Arrays.toString(entries);
+    }
+}
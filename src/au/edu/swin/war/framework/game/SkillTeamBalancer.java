@@ -0,0 +1,76 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.WarPlayer;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * This balancer keeps teams the same size like
+ * SmallestTeamBalancer does, but when teams are the
+ * same size, the player joins the team with the lowest
+ * total skill rating. Filling teams this way keeps their
+ * total ratings close together.
+ *
+ * @version 1.0
+ * @see WarPlayer#getRating()
+ * @since 1.1
+ */
+public class SkillTeamBalancer extends SmallestTeamBalancer {
+
+    private final HashMap<WarTeam, Double> ratings = new HashMap<>(); // The total rating of each team.
+    private final HashMap<WarTeam, Double> plannedRatings = new HashMap<>(); // The rating planned to join or leave each team.
+    private final HashMap<WarPlayer, Double> counted = new HashMap<>(); // The rating each player was counted with.
+
+    @Override
+    public void reset(Collection<WarTeam> teams, Collection<WarPlayer> players) {
+        ratings.clear();
+        plannedRatings.clear();
+        counted.clear();
+        for (WarPlayer wp : players)
+            if (wp.getCurrentTeam() != null && teams.contains(wp.getCurrentTeam()))
+                count(wp, wp.getCurrentTeam(), 1, false);
+        super.reset(teams, players);
+    }
+
+    @Override
+    protected void count(WarPlayer player, WarTeam team, int change, boolean planned) {
+        super.count(player, team, change, planned);
+        if (planned) {
+            Double rating = change < 0 ? counted.get(player) : null; // They leave with what they were counted with.
+            plannedRatings.merge(team, (rating == null ? player.getRating() : rating) * change, Double::sum);
+        } else if (change > 0) {
+            // Their rating may change while they are on the team, so remember what was added.
+            double rating = player.getRating();
+            counted.put(player, rating);
+            ratings.merge(team, rating, Double::sum);
+        } else {
+            Double rating = counted.remove(player);
+            if (rating != null) ratings.merge(team, -rating, Double::sum);
+        }
+    }
+
+    @Override
+    protected void forgetPlan() {
+        super.forgetPlan();
+        plannedRatings.clear();
+    }
+
+    @Override
+    protected int compare(WarTeam a, WarTeam b) {
+        int result = super.compare(a, b);
+        return result != 0 ? result : Double.compare(rating(a), rating(b));
+    }
+
+    /**
+     * Returns the total rating of a team,
+     * counting any planned moves.
+     *
+     * @param team The team.
+     * @return The total rating.
+     */
+    private double rating(WarTeam team) {
+        Double rating = ratings.get(team), change = plannedRatings.get(team);
+        return (rating == null ? 0 : rating) + (change == null ? 0 : change);
+    }
+}
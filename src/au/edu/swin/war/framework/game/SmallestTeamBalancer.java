@@ -0,0 +1,147 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.WarPlayer;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * This balancer puts players on the team with
+ * the least members that still has room.
+ * <p>
+ * Teams are kept in a heap ordered by size, so the
+ * smallest team is always at the top, and a join or
+ * leave only moves one team up or down the heap. Sizes
+ * are read from each WarTeam, so the heap must be told
+ * after a team's members have changed.
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class SmallestTeamBalancer implements TeamBalancer {
+
+    private final HashMap<WarTeam, Integer> planned; // Planned joins less planned leaves of each team.
+    private final TeamHeap heap; // The teams, smallest first.
+
+    /**
+     * Creates a balancer with no teams.
+     */
+    public SmallestTeamBalancer() {
+        planned = new HashMap<>();
+        heap = new TeamHeap(this::compare);
+    }
+
+    @Override
+    public void reset(Collection<WarTeam> teams, Collection<WarPlayer> players) {
+        planned.clear();
+        heap.clear();
+        for (WarTeam team : teams)
+            heap.add(team);
+    }
+
+    @Override
+    public WarTeam pick(WarPlayer joining) {
+        WarTeam team = heap.peek();
+        return team == null || isFull(team) ? null : team; // Full teams are at the bottom, so all are full.
+    }
+
+    @Override
+    public boolean accepts(WarTeam team) {
+        WarTeam smallest = heap.peek();
+        return heap.contains(team) && !isFull(team) && size(team) <= size(smallest);
+    }
+
+    @Override
+    public void joined(WarPlayer player, WarTeam team) {
+        if (!heap.contains(team)) return;
+        count(player, team, 1, false);
+        heap.update(team);
+    }
+
+    @Override
+    public void left(WarPlayer player, WarTeam team) {
+        if (!heap.contains(team)) return;
+        count(player, team, -1, false);
+        heap.update(team);
+    }
+
+    @Override
+    public void plan(WarPlayer player, WarTeam from, WarTeam to) {
+        if (from != null && heap.contains(from)) {
+            count(player, from, -1, true);
+            heap.update(from);
+        }
+        if (heap.contains(to)) {
+            count(player, to, 1, true);
+            heap.update(to);
+        }
+    }
+
+    @Override
+    public void endPlan() {
+        if (planned.isEmpty()) return;
+        forgetPlan(); // Every planned team changes at once, so the whole heap is put back in order.
+        heap.heapify();
+        assert heap.isOrdered() : "Teams are out of order after a plan";
+    }
+
+    /**
+     * Counts a player joining or leaving a team. The
+     * team's size is already counted by the team itself,
+     * so only planned moves are counted here.
+     * Extend this to keep track of anything else.
+     *
+     * @param player  The player.
+     * @param team    The team.
+     * @param change  1 if they joined, -1 if they left.
+     * @param planned Whether the move is only planned.
+     */
+    protected void count(WarPlayer player, WarTeam team, int change, boolean planned) {
+        if (planned) this.planned.merge(team, change, Integer::sum);
+    }
+
+    /**
+     * Forgets every planned move.
+     * Extend this to forget anything else that was planned.
+     */
+    protected void forgetPlan() {
+        planned.clear();
+    }
+
+    /**
+     * Orders two teams. Teams that are full come last,
+     * then smaller teams come before bigger teams.
+     * Extend this to break ties another way.
+     *
+     * @param a A team.
+     * @param b Another team.
+     * @return Negative if a comes first, positive if b does.
+     */
+    protected int compare(WarTeam a, WarTeam b) {
+        boolean fullA = isFull(a), fullB = isFull(b);
+        if (fullA != fullB) return fullA ? 1 : -1;
+        return Integer.compare(size(a), size(b));
+    }
+
+    /**
+     * Returns how many players are on a team,
+     * counting any planned moves.
+     *
+     * @param team The team.
+     * @return The team's size.
+     */
+    protected int size(WarTeam team) {
+        Integer change = planned.get(team);
+        return team.getSize() + (change == null ? 0 : change);
+    }
+
+    /**
+     * Returns whether or not a team is full.
+     *
+     * @param team The team.
+     * @return Whether it is full.
+     */
+    private boolean isFull(WarTeam team) {
+        return !team.hasRoomFor(size(team));
+    }
+}
@@ -0,0 +1,80 @@
+package au.edu.swin.war.framework.game;
+
+import au.edu.swin.war.framework.WarPlayer;
+
+import java.util.Collection;
+
+/**
+ * This interface decides which team a player
+ * joins when they don't ask for a specific team.
+ * <p>
+ * Team sizes are read from WarTeam.getSize(). A balancer
+ * only keeps the teams in order, and the gamemode tells
+ * it when players join and leave, so picking a team
+ * doesn't need to look at every team again.
+ *
+ * @version 1.0
+ * @see WarMode#setBalancer(TeamBalancer)
+ * @since 1.1
+ */
+public interface TeamBalancer {
+
+    /**
+     * Forgets everything, and starts counting again
+     * from the players currently on the teams.
+     *
+     * @param teams   The teams in the match.
+     * @param players Every player, on a team or not.
+     */
+    void reset(Collection<WarTeam> teams, Collection<WarPlayer> players);
+
+    /**
+     * Picks the team a player should join.
+     *
+     * @param joining The player joining.
+     * @return The team, or null if every team is full.
+     */
+    WarTeam pick(WarPlayer joining);
+
+    /**
+     * Returns whether or not a player may join a team of
+     * their choice without unbalancing the teams.
+     *
+     * @param team The team they would like to join.
+     * @return Whether they may join it.
+     */
+    boolean accepts(WarTeam team);
+
+    /**
+     * Called once a player has joined a team.
+     *
+     * @param player The player.
+     * @param team   The team they joined.
+     */
+    void joined(WarPlayer player, WarTeam team);
+
+    /**
+     * Called once a player has left a team.
+     *
+     * @param player The player.
+     * @param team   The team they left.
+     */
+    void left(WarPlayer player, WarTeam team);
+
+    /**
+     * Counts a move that hasn't happened yet, so later picks
+     * take it into account. Planned moves are only counted
+     * until endPlan() is called.
+     *
+     * @param player The player.
+     * @param from   The team they will leave, or null if they aren't on one.
+     * @param to     The team they will join.
+     */
+    void plan(WarPlayer player, WarTeam from, WarTeam to);
+
+    /**
+     * Forgets every planned move, as none of
+     * them have actually happened yet.
+     */
+    void endPlan();
+}
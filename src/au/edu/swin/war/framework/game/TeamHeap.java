@@ -0,0 +1,137 @@
+package au.edu.swin.war.framework.game;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+
+/**
+ * A binary heap of teams that remembers where each
+ * team is, so a team can be moved up or down after it
+ * changes without searching for it first.
+ *
+ * @version 1.0
+ * @see SmallestTeamBalancer
+ * @since 1.1
+ */
+final class TeamHeap {
+
+    private final Comparator<WarTeam> order; // The first team in this order is at the top.
+    private final HashMap<WarTeam, Integer> positions; // Where each team is in the heap.
+    private WarTeam[] heap; // The teams, as a binary heap.
+    private int size; // How many teams are in the heap.
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param order The order of the teams.
+     */
+    TeamHeap(Comparator<WarTeam> order) {
+        this.order = order;
+        this.positions = new HashMap<>();
+        this.heap = new WarTeam[8];
+    }
+
+    /**
+     * Removes every team.
+     */
+    void clear() {
+        Arrays.fill(heap, 0, size, null);
+        positions.clear();
+        size = 0;
+    }
+
+    /**
+     * Adds a team.
+     *
+     * @param team The team.
+     */
+    void add(WarTeam team) {
+        if (positions.containsKey(team)) return;
+        if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+        heap[size] = team;
+        positions.put(team, size);
+        siftUp(size++);
+    }
+
+    /**
+     * Returns whether or not a team is in the heap.
+     *
+     * @param team The team.
+     * @return Whether it is in the heap.
+     */
+    boolean contains(WarTeam team) {
+        return positions.containsKey(team);
+    }
+
+    /**
+     * Moves a team to where it belongs after it changed.
+     *
+     * @param team The team.
+     */
+    void update(WarTeam team) {
+        Integer at = positions.get(team);
+        if (at == null) return;
+        siftDown(siftUp(at));
+    }
+
+    /**
+     * Puts every team back where it belongs, after
+     * more than one of them changed at once. Moving
+     * them one by one with update() only works if
+     * every other team is already in the right place.
+     */
+    void heapify() {
+        for (int at = (size >> 1) - 1; at >= 0; at--)
+            siftDown(at);
+    }
+
+    /**
+     * Returns whether or not every team is in
+     * the right place, for assertions.
+     *
+     * @return Whether the heap is in order.
+     */
+    boolean isOrdered() {
+        for (int at = 1; at < size; at++)
+            if (order.compare(heap[at], heap[(at - 1) >> 1]) < 0) return false;
+        return true;
+    }
+
+    /**
+     * Returns the first team, without removing it.
+     *
+     * @return The first team, or null if there are none.
+     */
+    WarTeam peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    private int siftUp(int at) {
+        while (at > 0) {
+            int parent = (at - 1) >> 1;
+            if (order.compare(heap[at], heap[parent]) >= 0) break;
+            swap(at, parent);
+            at = parent;
+        }
+        return at;
+    }
+
+    private void siftDown(int at) {
+        while (true) {
+            int child = (at << 1) + 1;
+            if (child >= size) return;
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) < 0) child++;
+            if (order.compare(heap[child], heap[at]) >= 0) return;
+            swap(at, child);
+            at = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        WarTeam team = heap[a];
+        heap[a] = heap[b];
+        heap[b] = team;
+        positions.put(heap[a], a);
+        positions.put(heap[b], b);
+    }
+}
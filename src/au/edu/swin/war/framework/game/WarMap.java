@@ -1,13 +1,18 @@
 package au.edu.swin.war.framework.game;
 
 import au.edu.swin.war.framework.WarPlayer;
+import au.edu.swin.war.framework.game.region.*;
 import au.edu.swin.war.framework.stored.Activatable;
 import au.edu.swin.war.framework.stored.SerializedLocation;
 import au.edu.swin.war.framework.util.WarManager;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.Player;
 import org.bukkit.entity.Hanging;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.Cancellable;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.*;
@@ -15,8 +20,10 @@ import org.bukkit.event.entity.EntityDamageEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
 import org.bukkit.event.entity.PlayerDeathEvent;
 import org.bukkit.event.hanging.HangingBreakEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.inventory.ItemStack;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -42,10 +49,13 @@ import java.util.*;
 public abstract class WarMap implements Listener {
 
     /* Team-related data. */
-    final HashMap<String, Object> attributes; // Custom map attributes can be set here if needed.
+    final AttributeMap attributes; // Custom map attributes can be set here if needed.
     final HashMap<String, ArrayList<SerializedLocation>> teamSpawns; // A key/value set defining all team spawns.
     private final List<Activatable> objectives; // Objectives which are activatable should be set here.
     private final HashMap<String, WarTeam> teams; // The list of defined teams available in this map.
+    private final List<Region> regions; // Regions with their own rules, in the order they were added.
+    private RegionIndex regionIndex; // Finds the region deciding what happens at a block.
+    private PlateauRegion plateau; // The plateau region, if this map has one.
     /* Do not interfere with these values! */
     protected WarManager main; // The WarManager instance. This allows access to all other crucial modules.
     protected SerializedLocation specSpawn; // The location at which all spectators will initially spawn.
@@ -53,7 +63,8 @@ public abstract class WarMap implements Listener {
     /* Designation attributes. */
     private UUID[] creators = new UUID[]{}; // An array of map creator UUIDs, if applicable.
     private String mapName; // The name of the map. For example, "Awesome Arena II"!
-    private Material[] disabledDrops = new Material[]{}; // A list of disabled drops. One is automatically applied.
+    private DropPolicy dropPolicy = new DropPolicy(new Material[]{}); // Decides which drops are disabled. One is automatically applied.
+    private KitTemplate kit; // The kit given to players when they spawn, if the map defines one.
 
     /**
      * Since this class is intialized through reflections,
@@ -69,9 +80,10 @@ public abstract class WarMap implements Listener {
         teams = new HashMap<>(); // The Key/Value set only needs to be cleared on a match end. Do not null or free it.
         teamSpawns = new HashMap<>(); // The same as above applies to the spawns. Please clear instead of nulling.
         objectives = new ArrayList<>(); // Initialize the objectives array.
+        regions = new ArrayList<>(); // Initialize the regions array.
 
         /* Here are some default values which can be modified by extended configurations. */
-        attributes = new HashMap<>(); // Initialise the key/value set first!!
+        attributes = new AttributeMap(); // Initialise the key/value set first!!
         attributes.put("allDamage", true); // allDamage allows players to take physical PvP damage;
         attributes.put("blockBreak", true); // blockBreak allows players to break blocks;
         attributes.put("blockPlace", true); // blockPlace allows players to place blocks;
@@ -81,6 +93,7 @@ public abstract class WarMap implements Listener {
         // -ONLY IF THEY ARE SET TO TRUE!
 
         attributes.put("matchDuration", 900L); // Defines the default match duration as 15 minutes. (900 seconds)
+        attributes.put("realTime", false); // realTime measures the match duration in real time, not server ticks;
         attributes.put("ffaKills", 20); // Defines the default kill cap needed to win an FFA. (20 kills)
         attributes.put("captureRequirement", 3); // Defines the default amount of flag captures to win a CTF. (3 caps)
         attributes.put("captureTime", 180); // Defines the default amount of time to hold a flag to win a KoTH. (180 seconds)
@@ -108,7 +121,11 @@ public abstract class WarMap implements Listener {
     /**
      * Extend this procedure in another abstract map class to
      * define actions needed to be taken prior to the match
-     * starting, such as enabling listeners and activating the map.
+     * starting, such as activating the map.
+     * <p>
+     * The map's listeners are registered by the gamemode when
+     * it activates, and only hear about the round's world.
+     * Do not register the map with registerEvents() as well.
      */
     public abstract void activate();
 
@@ -161,16 +178,41 @@ public abstract class WarMap implements Listener {
      * @param target The player to apply.
      */
     public void applyInv(WarPlayer target) {
-        main.items().clear(target);
+        if (kit != null) {
+            main.items().reset(target); // The kit replaces the whole inventory, so it isn't cleared first.
+            kit.apply(target); // Sets the whole inventory at once.
+        } else main.items().clear(target);
         applyInventory(target);
         target.getPlayer().updateInventory();
     }
 
+    /**
+     * Returns the kit given to players when they spawn.
+     *
+     * @return The map's kit, or null if it doesn't have one.
+     */
+    public KitTemplate getKit() {
+        return kit;
+    }
+
+    /**
+     * Sets the kit given to players when they spawn. The kit
+     * is only built once for each team, so this is much quicker
+     * than building every item in applyInventory().
+     *
+     * @param kit The map's kit, or null to not have one.
+     */
+    protected void setKit(KitTemplate kit) {
+        this.kit = kit;
+    }
+
     /**
      * Applies a player's inventory for the map.
      * <p>
      * Extend this procedure to give the relevant player
      * their kit for this map when they spawn or respawn.
+     * If the map has a KitTemplate, it has already been
+     * given, so only add anything else here.
      *
      * @param target The player to apply.
      */
@@ -194,10 +236,14 @@ public abstract class WarMap implements Listener {
      * <p>
      * A gamemode-specific attribute can be the KoTH flag.
      * A map-specific attribute could be a temporary point system.
+     * <p>
+     * Listeners should read attributes through a MapAttribute
+     * handle instead of by name, i.e. attr().is(MapAttribute.BLOCK_PLACE)
      *
      * @return The map's attributes.
+     * @see MapAttribute
      */
-    public HashMap<String, Object> attr() {
+    public AttributeMap attr() {
         return attributes;
     }
 
@@ -225,6 +271,113 @@ public abstract class WarMap implements Listener {
         attributes.put("boundary", true);
         attributes.put("bottomLeft", new SerializedLocation(Math.min(x1, x2), 0, Math.min(z1, z2)));
         attributes.put("topRight", new SerializedLocation(Math.max(x1, x2), 0, Math.max(z1, z2)));
+        regionIndex = null; // The index needs to be built again.
+    }
+
+    /**
+     * Adds a region with its own rules to the map.
+     * For example, a team's spawn could deny building.
+     * <p>
+     * The border, plateau and build height are regions too,
+     * and are added automatically from their attributes.
+     *
+     * @param region The region.
+     * @see Region#rule(RegionRule, boolean)
+     */
+    protected void addRegion(Region region) {
+        regions.add(region);
+        regionIndex = null; // The index needs to be built again.
+    }
+
+    /**
+     * Returns the regions added to this map.
+     *
+     * @return The map's regions.
+     */
+    public List<Region> getRegions() {
+        return regions;
+    }
+
+    /**
+     * Returns the index of this map's regions, building it
+     * first if needed. Use this to find out whether something
+     * is allowed at a block.
+     *
+     * @return The region index.
+     */
+    public RegionIndex regions() {
+        if (regionIndex == null) compileRegions();
+        return regionIndex;
+    }
+
+    /**
+     * Builds the index of this map's regions. The border,
+     * plateau and build height attributes are turned into
+     * regions here, so this is called whenever the map is
+     * activated in case they have changed.
+     */
+    void compileRegions() {
+        List<Region> all = new ArrayList<>(regions);
+        if (attributes.has(MapAttribute.BOUNDARY)) {
+            SerializedLocation bl = attributes.get(MapAttribute.BOTTOM_LEFT);
+            SerializedLocation tr = attributes.get(MapAttribute.TOP_RIGHT);
+            Region inside = new CuboidRegion("boundary", (int) bl.x(), Integer.MIN_VALUE, (int) bl.z(),
+                    (int) tr.x(), Integer.MAX_VALUE, (int) tr.z());
+            all.add(new InverseRegion("outside", inside).rule(RegionRule.PLACE, false));
+        }
+        plateau = null;
+        if (attributes.has(MapAttribute.PLATEAU)) {
+            plateau = new PlateauRegion("plateau", (int) attributes.num(MapAttribute.PLATEAU));
+            all.add(plateau.rule(RegionRule.PLACE, false).bypassable(false)); // Applies to everyone, as it always has.
+        }
+        if (attributes.has(MapAttribute.BUILD_HEIGHT))
+            all.add(new CuboidRegion("skybox", Integer.MIN_VALUE, (int) attributes.num(MapAttribute.BUILD_HEIGHT) + 1, Integer.MIN_VALUE,
+                    Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE).rule(RegionRule.PLACE, false).message("guard.highest")
+                    .bypassable(false));
+        regionIndex = new RegionIndex(all);
+    }
+
+    /**
+     * Gets regions ready for the match. The plateau is read
+     * from its cache if the map hasn't changed, otherwise
+     * every loaded chunk of the plateau is scanned now.
+     *
+     * @param world The world the map is loaded as.
+     */
+    void prepareRegions(World world) {
+        if (plateau == null || world == null) return;
+        if (plateau.load(main.world().getMapCache(mapName, ".plateau"), main.world().getSourceStamp(mapName))) {
+            main.plugin().log("Loaded the plateau of " + mapName + " from its cache.");
+            return;
+        }
+        long start = System.nanoTime();
+        int scanned = plateau.prepare(world);
+        main.plugin().log("Scanned " + scanned + " plateau chunks of " + mapName + " in "
+                + (System.nanoTime() - start) / 1000000L + " ms.");
+    }
+
+    /**
+     * Saves anything about the regions that was worked out
+     * during the match, so it doesn't need to be next time.
+     */
+    void saveRegions() {
+        if (plateau == null) return;
+        try {
+            plateau.save(main.world().getMapCache(mapName, ".plateau"), main.world().getSourceStamp(mapName));
+        } catch (IOException e) {
+            main.plugin().log("Could not save the plateau cache of " + mapName + "!");
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the region in which blocks can be interacted with.
+     *
+     * @return The bottom left and top right corners, or null if there is no boundary.
+     */
+    public SerializedLocation[] getBuildBoundary() {
+        if (!attributes.has(MapAttribute.BOUNDARY)) return null;
+        return new SerializedLocation[]{attributes.get(MapAttribute.BOTTOM_LEFT), attributes.get(MapAttribute.TOP_RIGHT)};
     }
 
     /**
@@ -258,6 +411,18 @@ public abstract class WarMap implements Listener {
      */
     protected void setBuildHeight(int y) {
         attr().put("buildHeight", y);
+        regionIndex = null; // The index needs to be built again.
+    }
+
+    /**
+     * Only allows players to build above
+     * bedrock that is at a certain height.
+     *
+     * @param y The height of the bedrock plateau.
+     */
+    protected void setPlateau(int y) {
+        attr().put("plateau", y);
+        regionIndex = null; // The index needs to be built again.
     }
 
     /**
@@ -268,7 +433,30 @@ public abstract class WarMap implements Listener {
      * @see PlayerDeathEvent
      */
     protected void setDisabledDrops(Material[] disabledDrops) {
-        this.disabledDrops = disabledDrops;
+        this.dropPolicy = new DropPolicy(disabledDrops);
+    }
+
+    /**
+     * Sets the policy that decides which items are
+     * not dropped by a player when they die. Use this
+     * instead of setDisabledDrops() to also match items
+     * by their tags, such as kit items.
+     *
+     * @param dropPolicy The drop policy.
+     * @see DropPolicy#withKits(Material[])
+     */
+    protected void setDropPolicy(DropPolicy dropPolicy) {
+        this.dropPolicy = dropPolicy;
+    }
+
+    /**
+     * Returns the policy that decides which items are
+     * not dropped by a player when they die.
+     *
+     * @return The drop policy.
+     */
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
     }
 
     /**
@@ -303,7 +491,7 @@ public abstract class WarMap implements Listener {
      * @return The maximum duration of the match.
      */
     public long getMatchDuration() {
-        return (Long) attributes.get("matchDuration");
+        return attributes.num(MapAttribute.MATCH_DURATION);
     }
 
     /**
@@ -316,6 +504,28 @@ public abstract class WarMap implements Listener {
         attributes.put("matchDuration", matchDuration);
     }
 
+    /**
+     * Returns whether the match duration is measured in real
+     * time, rather than in server ticks. By default it is not,
+     * so a lagging server makes the match last longer.
+     *
+     * @return Whether the duration is measured in real time.
+     */
+    public boolean isRealTime() {
+        return attributes.is(MapAttribute.REAL_TIME);
+    }
+
+    /**
+     * Sets whether the match duration is measured in real time.
+     * Maps where the clock matters, such as timed objectives,
+     * may want this so the match always ends on time.
+     *
+     * @param realTime Whether the duration is measured in real time.
+     */
+    protected void setRealTime(boolean realTime) {
+        attributes.put("realTime", realTime);
+    }
+
     /**
      * This function should conventionally return a converted
      * form of the specSpawn field. This should be done by
@@ -474,8 +684,11 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void entityExplode(EntityExplodeEvent event) {
-        if (!(Boolean) attributes.get("blockBreak") && !(Boolean) attributes.get("blockExplode"))
+        if (!attributes.is(MapAttribute.BLOCK_BREAK) && !attributes.is(MapAttribute.BLOCK_EXPLODE))
             event.blockList().clear();
+        else if (regions().governs(RegionRule.EXPLODE))
+            // Regions can protect their blocks from explosions.
+            event.blockList().removeIf(block -> !regions().allows(RegionRule.EXPLODE, block.getWorld(), block.getX(), block.getY(), block.getZ()));
     }
 
     /**
@@ -486,8 +699,10 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void entityDeath(PlayerDeathEvent event) {
-        for (ItemStack drop : event.getDrops()) {
-            if (Arrays.asList(disabledDrops).contains(drop.getType()))
+        List<ItemStack> drops = event.getDrops();
+        for (int i = 0; i < drops.size(); i++) { // Indexed, so no iterator is created per death.
+            ItemStack drop = drops.get(i);
+            if (dropPolicy.isDisabled(drop))
                 drop.setType(Material.AIR);
         }
     }
@@ -499,7 +714,7 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void onBlockSpread(BlockSpreadEvent event) {
-        if (event.getSource().getType() == Material.FIRE && !(Boolean) attributes.get("fireSpread"))
+        if (event.getSource().getType() == Material.FIRE && !attributes.is(MapAttribute.FIRE_SPREAD))
             event.setCancelled(true);
     }
 
@@ -510,7 +725,7 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void onIgnite(BlockIgniteEvent event) {
-        if (event.getCause() == BlockIgniteEvent.IgniteCause.SPREAD && !(Boolean) attributes.get("fireSpread"))
+        if (event.getCause() == BlockIgniteEvent.IgniteCause.SPREAD && !attributes.is(MapAttribute.FIRE_SPREAD))
             event.setCancelled(true);
     }
 
@@ -521,7 +736,7 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void onBurn(BlockBurnEvent event) {
-        if (!(Boolean) attributes.get("fireSpread")) event.setCancelled(true);
+        if (!attributes.is(MapAttribute.FIRE_SPREAD)) event.setCancelled(true);
     }
 
     /**
@@ -531,7 +746,7 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void hngbrk(HangingBreakEvent event) {
-        if (!(Boolean) attributes.get("blockBreak")) event.setCancelled(true);
+        if (!attributes.is(MapAttribute.BLOCK_BREAK)) event.setCancelled(true);
     }
 
     /**
@@ -541,7 +756,7 @@ public abstract class WarMap implements Listener {
      */
     @EventHandler
     public void hngbrk(EntityDamageEvent event) {
-        if (!(Boolean) attributes.get("blockBreak") && event.getEntity() instanceof Hanging) event.setCancelled(true);
+        if (!attributes.is(MapAttribute.BLOCK_BREAK) && event.getEntity() instanceof Hanging) event.setCancelled(true);
     }
 
     /**
@@ -552,50 +767,78 @@ public abstract class WarMap implements Listener {
     @EventHandler(priority = EventPriority.HIGHEST)
     public void brk(BlockBreakEvent event) {
         if (event.isCancelled()) return;
-        if (!(Boolean) attributes.get("blockBreak")) {
+        if (!attributes.is(MapAttribute.BLOCK_BREAK)) {
             if (main.match().isAffected(event.getPlayer())) {
                 event.setCancelled(true);
-                main.warn(event.getPlayer(), main._("guard.building"));
+                main.warnThrottled(event.getPlayer(), "guard.building");
             }
-        }
+        } else guard(event, event.getPlayer(), event.getBlock(), RegionRule.BREAK);
     }
 
     /**
      * If block placing is disabled, blocks will disappear when placed.
-     * Also blocks building outside the defined boundary.
+     * Also blocks building anywhere a region denies it, such as
+     * outside the boundary, off the plateau or above the build height.
      *
      * @param event An event called by the server.
      */
     @EventHandler(priority = EventPriority.HIGHEST)
     public void plc(BlockPlaceEvent event) {
         if (event.isCancelled()) return;
-        if (!(Boolean) attributes.get("blockPlace")) {
+        if (!attributes.is(MapAttribute.BLOCK_PLACE)) {
             if (main.match().isAffected(event.getPlayer())) {
                 event.setCancelled(true);
-                main.warn(event.getPlayer(), main._("guard.building"));
-            }
-        } else if (attributes.containsKey("boundary")) {
-            Location placed = event.getBlock().getLocation();
-            SerializedLocation bl = (SerializedLocation) attributes.get("bottomLeft");
-            SerializedLocation tr = (SerializedLocation) attributes.get("topRight");
-            if (main.match().isAffected(event.getPlayer()) && (placed.getX() < bl.x() || placed.getZ() < bl.z() || placed.getX() > tr.x() || placed.getZ() > tr.z())) {
-                event.setCancelled(true);
-                main.warn(event.getPlayer(), main._("guard.border"));
-            }
-        } else if (attributes.containsKey("plateau")) {
-            int plateauY = (int) attributes.get("plateau");
-            Location equiv = event.getBlock().getLocation().clone();
-            equiv.setY(plateauY);
-            if (equiv.getBlock().getType() != Material.BEDROCK) {
-                event.setCancelled(true);
-                main.warn(event.getPlayer(), main._("guard.border"));
-            }
-        } else if (attributes.containsKey("buildHeight")) {
-            int buildHeight = (int) attributes.get("buildHeight");
-            if (event.getBlock().getY() > buildHeight) {
-                event.setCancelled(true);
-                main.warn(event.getPlayer(), main._("guard.highest"));
+                main.warnThrottled(event.getPlayer(), "guard.building");
             }
+        } else guard(event, event.getPlayer(), event.getBlock(), RegionRule.PLACE);
+    }
+
+    /**
+     * Stops players from walking into regions that deny it.
+     *
+     * @param event An event called by the server.
+     */
+    @EventHandler(priority = EventPriority.HIGHEST)
+    public void move(PlayerMoveEvent event) {
+        if (event.isCancelled() || !regions().governs(RegionRule.ENTER)) return;
+        Location from = event.getFrom(), to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ())
+            return; // They haven't moved onto another block.
+        Region region = regions().governing(RegionRule.ENTER, to.getWorld(), to.getBlockX(), to.getBlockY(), to.getBlockZ());
+        if (region != null && !region.allows(RegionRule.ENTER) && applies(region, event.getPlayer())) {
+            event.setTo(from);
+            main.warnThrottled(event.getPlayer(), region.getMessage());
         }
     }
+
+    /**
+     * Cancels something a player is doing to a block
+     * if the region deciding it denies it.
+     *
+     * @param event  The event to cancel.
+     * @param player The player doing it.
+     * @param block  The block.
+     * @param rule   What is happening.
+     */
+    private void guard(Cancellable event, Player player, Block block, RegionRule rule) {
+        if (!regions().governs(rule)) return; // No region cares, so don't look anything up.
+        Region region = regions().governing(rule, block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (region != null && !region.allows(rule) && applies(region, player)) {
+            event.setCancelled(true);
+            main.warnThrottled(player, region.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether or not a region's rules apply to a player.
+     * Players who aren't affected by the match can only ignore
+     * regions that let them.
+     *
+     * @param region The region.
+     * @param player The player.
+     * @return Whether the player is held to the region's rules.
+     */
+    private boolean applies(Region region, Player player) {
+        return !region.isBypassable() || main.match().isAffected(player);
+    }
 }
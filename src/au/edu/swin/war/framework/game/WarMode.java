@@ -5,6 +5,8 @@ import au.edu.swin.war.framework.event.MatchEndEvent;
 import au.edu.swin.war.framework.event.MatchPlayerJoinEvent;
 import au.edu.swin.war.framework.event.MatchPlayerLeaveEvent;
 import au.edu.swin.war.framework.stored.SerializedLocation;
+import au.edu.swin.war.framework.util.MatchClock;
+import au.edu.swin.war.framework.util.MatchTimer;
 import au.edu.swin.war.framework.util.WarManager;
 import au.edu.swin.war.framework.util.WarMatch;
 import net.md_5.bungee.api.chat.TextComponent;
@@ -12,11 +14,15 @@ import net.minecraft.server.v1_12_R1.*;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.craftbukkit.v1_12_R1.inventory.CraftItemStack;
 import org.bukkit.entity.Player;
-import org.bukkit.event.HandlerList;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.Scoreboard;
@@ -44,10 +50,14 @@ public abstract class WarMode implements Listener {
     protected WarManager main; // The WarManager instance. This allows access to all other crucial modules.
     // !! IMPORTANT !! //
     /* Ensure that these fields are initialized & freed when needed. */
-    private BukkitTask runtimeTask; // Global gamemode-specific runtime task.
+    private MatchTimer.Entry runtimeTask; // Global gamemode-specific runtime task.
+    private MatchTimer.Entry announcement; // The next broadcast of the time remaining.
+    private BukkitTask assignTask; // Task that carries out a bulk team assignment over several ticks.
+    private Iterator<Map.Entry<WarPlayer, WarTeam>> assigning; // The part of the bulk assignment still to be carried out.
+    private TeamBalancer balancer; // Decides which team players join when they don't choose one.
     private Team spec; // Holds the Spigot team extension for the spectators.
-    private int timeElapsed; // Specifies the number of seconds elapsed during the match.
     private Scoreboard score; // Holds the Spigot scoreboard extension that players see.
+    private ScoreboardRenderer sidebar; // Draws sidebars over the scoreboard, a line at a time.
     private WarMap map; // The map currently associated with this gamemode.
     /* HashMaps that must be initialized/freed on a match start/end. */
     private HashMap<String, WarTeam> teams; // Temporary Key/Value set to hold maps for the match.
@@ -63,6 +73,7 @@ public abstract class WarMode implements Listener {
     public WarMode() {
         // Call init() externally
         rng = new Random();
+        balancer = new SmallestTeamBalancer();
     }
 
     /**
@@ -75,6 +86,7 @@ public abstract class WarMode implements Listener {
      */
     public void init(WarManager main) {
         this.main = main;
+        sidebar = new ScoreboardRenderer(main);
         teams = new HashMap<>(); // The Key/Value set only needs to be cleared on a match end. Do not null or free it.
         teamSpawns = new HashMap<>(); // The same as above applies to the spawns. Please clear instead of nulling.
     }
@@ -125,7 +137,8 @@ public abstract class WarMode implements Listener {
      * points a team has on Team Death Match.
      * <p>
      * Try not to call this too much, as it is intensive and
-     * can flicker a lot if not used carefully.
+     * can flicker a lot if not used carefully. Passing the
+     * lines to sidebar() only sends the lines that changed.
      * <p>
      * If the gamemode doesn't use a scoreboard, ignore this.
      *
@@ -231,6 +244,7 @@ public abstract class WarMode implements Listener {
      * the winning team or player and the results.
      */
     public void onEnd() {
+        main.match().clock().stop(); // The match is over, so time stops.
         if (runtimeTask != null) {
             runtimeTask.cancel();
             decideWinner();
@@ -278,23 +292,17 @@ public abstract class WarMode implements Listener {
     }
 
     /**
-     * Increases the time elapsed in the match by 1.
-     * This procedure is automatically called every
-     * second by the runtimeTask.
-     *
-     * @see org.bukkit.scheduler.BukkitRunnable;
-     */
-    private void incrementTimeElapsed() {
-        timeElapsed += 1;
-    }
-
-    /**
-     * Returns the amount of time elapsed during this match.
+     * Returns the amount of time elapsed during this match, in
+     * whole seconds. Seconds are measured in server ticks or
+     * real time, depending on the map.
+     * <p>
+     * Use the match clock directly for anything finer.
      *
      * @return The amount of time elapsed.
+     * @see au.edu.swin.war.framework.util.MatchClock
      */
     public int getTimeElapsed() {
-        return timeElapsed;
+        return (int) main.match().clock().getSeconds();
     }
 
     /**
@@ -302,7 +310,12 @@ public abstract class WarMode implements Listener {
      * in the match. Mainly for debugging purposes.
      */
     public void setTimeElapsed(int timeElapsed) {
-        this.timeElapsed = timeElapsed;
+        main.match().clock().setSeconds(timeElapsed);
+        if (runtimeTask != null && !runtimeTask.isCancelled()) {
+            runtimeTask.cancel(); // Run again when the next whole second is reached.
+            runtimeTask = main.match().timer().schedule(main.match().clock().ticksUntil(timeElapsed + 1), this::runtime);
+            scheduleAnnouncement(); // The old one is now at the wrong time.
+        }
     }
 
     /**
@@ -342,12 +355,16 @@ public abstract class WarMode implements Listener {
      */
     @SuppressWarnings("unchecked")
     public void activate() {
-        main.plugin().getServer().getPluginManager().registerEvents(this, main.plugin()); // Allows the server to listen in on events for this gamemode class.
+        main.listeners().register(this); // Allows the server to listen in on events in the round's world for this gamemode class.
         map = main.cache().getCurrentMap();
+        main.listeners().register(map); // The same goes for the map.
+        map.compileRegions(); // Turn the map's border, plateau and build height into regions.
+        map.prepareRegions(main.match().getCurrentWorld()); // Scan the plateau now rather than on every block placed.
 
         for (WarTeam team : map().getTeams())
             // Copies every WarTeam defined in the map over to the gamemode!
             teams.put(team.getTeamName(), team.clone());
+        balancer.reset(teams.values(), Collections.emptyList()); // Every team starts empty.
 
         // Copies every spawnpoint for every team defined in the map also!
         teamSpawns = (HashMap<String, ArrayList<SerializedLocation>>) map().teamSpawns.clone();
@@ -374,69 +391,303 @@ public abstract class WarMode implements Listener {
         initializeCommon(); // Initializes common values in the extended gamemode class.
         initialize(); // Initializes everything in the external gamemode class!
 
-        // Defines the plugin executing the timer and the runnable interface. (Spigot)
-        runtimeTask = Bukkit.getScheduler().runTaskTimer( // Runs a task timer at a regular interval. (Spigot)
-                main.plugin(), () -> {
-                    if (main.match().getStatus() != WarMatch.Status.PLAYING) {
-                        // Cancel this if the match is not currently active.
-                        runtimeTask.cancel();
-                        return;
-                    }
-                    incrementTimeElapsed(); // Increments the time elapsed, every second!
-
-                    long timeLeft = getMatchDuration() - getTimeElapsed(); // Calculates the amount of time remaining.
-                    if (timeLeft % 60 == 0 && timeLeft != 0) { // Checks that the time is a remainder of
-                        long minutes = (timeLeft / 60); // Calculates number of minutes remaining.
-                        String s = (minutes == 1 ? "" : "s"); // Should it be 'minute' or 'minutes'?
-
-                        // Broadcasts the amount of minutes remaining.
-                        Bukkit.broadcastMessage("There is " + minutes + " minute" + s + " remaining!");
-                    } else if (timeLeft == 30) {
-                        // Broadcasts that there is 30 seconds remaining.
-                        Bukkit.broadcastMessage("There is " + timeLeft + " seconds remaining!");
-                    } else if (timeLeft < 6 && timeLeft > 0) {
-                        String s = (timeLeft == 1 ? "" : "s"); // Calculates number of seconds remaining.
-
-                        // Broadcasts the amount of seconds.
-                        Bukkit.broadcastMessage("There is " + timeLeft + " second" + s + " remaining!");
-                    }
-
-                    tick(); // Allows the external class to execute certain procedures every second too.
-
-                    if (getTimeElapsed() >= getMatchDuration())
-                        onEnd(); // If the time is up, end the match even if the objective is not complete.
-                }, 0L, 20L); // Have a 0 tick delay before starting the task, and repeat every 20 ticks.
+        if (!isAssigning()) begin(); // Otherwise, the match begins once everyone has been put on a team.
+    }
+
+    /**
+     * Starts the match clock, the runtime task, and the
+     * broadcasts of the time remaining. If initialize()
+     * started a bulk assignment, this waits until it has
+     * finished, so nobody gets a head start.
+     */
+    private void begin() {
+        main.match().timer().start(); // Starts turning the match timer, if it isn't already.
+        main.match().clock().start(map.isRealTime()); // Starts the match clock from zero.
+        runtimeTask = main.match().timer().schedule(main.match().clock().ticksUntil(1), this::runtime);
+        scheduleAnnouncement(); // Broadcast the time remaining at the right moments.
         // ! IMPORTANT ! A 'tick' is a 20th of a second. Minecraft servers run at 20 ticks per second. (TPS)
     }
 
+    /**
+     * Returns whether or not the match is being held
+     * until a bulk assignment finishes. While held, the
+     * clock hasn't started and nobody can move or be hurt.
+     *
+     * @return Whether the match is being held.
+     */
+    public boolean isHeld() {
+        return active && runtimeTask == null && isAssigning();
+    }
+
+    /**
+     * While the match is held, players who have already
+     * been put on a team stay where they spawned. They
+     * can still look around.
+     *
+     * @param event An event called by Spigot.
+     */
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onHeldMove(PlayerMoveEvent event) {
+        if (!isHeld()) return;
+        Location from = event.getFrom(), to = event.getTo();
+        if (from.getX() != to.getX() || from.getY() != to.getY() || from.getZ() != to.getZ())
+            event.setTo(new Location(from.getWorld(), from.getX(), from.getY(), from.getZ(), to.getYaw(), to.getPitch()));
+    }
+
+    /**
+     * While the match is held, nobody can be hurt.
+     *
+     * @param event An event called by Spigot.
+     */
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onHeldDamage(EntityDamageEvent event) {
+        if (isHeld() && event.getEntity() instanceof Player) event.setCancelled(true);
+    }
+
+    /**
+     * Runs once for every second of the match. The next run is
+     * scheduled for the tick the clock reaches the next second,
+     * so in real time, a slow server doesn't make the match long.
+     */
+    private void runtime() {
+        if (main.match().getStatus() != WarMatch.Status.PLAYING)
+            return; // Don't run again if the match is not currently active.
+        MatchClock clock = main.match().clock();
+        clock.sample(); // Keep up with how fast the server is running.
+
+        tick(); // Allows the external class to execute certain procedures every second too.
+
+        if (clock.getSeconds() >= getMatchDuration()) {
+            onEnd(); // If the time is up, end the match even if the objective is not complete.
+            return;
+        }
+        if (!active) return; // The external class ended the match.
+        runtimeTask = main.match().timer().schedule(clock.ticksUntil(getTimeElapsed() + 1), this::runtime);
+        if (clock.isRealTime()) scheduleAnnouncement(); // Correct the estimate of the next broadcast.
+    }
+
+    /**
+     * Schedules the next broadcast of the time remaining. This is
+     * done for every minute, 30 seconds, and the last 5 seconds
+     * of the match. Any broadcast already scheduled is cancelled.
+     */
+    private void scheduleAnnouncement() {
+        if (announcement != null) announcement.cancel();
+        announcement = null;
+        MatchClock clock = main.match().clock();
+        long duration = getMatchDuration();
+        long timeLeft = (long) Math.ceil(duration - clock.getSeconds()) - 1; // The next whole second to come.
+        while (timeLeft > 0 && timeLeft % 60 != 0 && timeLeft != 30 && timeLeft >= 6)
+            timeLeft--;
+        if (timeLeft <= 0) return; // Nothing left to broadcast.
+        long left = timeLeft;
+        announcement = main.match().timer().schedule(clock.ticksUntil(duration - left), () -> {
+            if (clock.getSeconds() < duration - left) {
+                // This was estimated in real time, and the server has since sped up.
+                scheduleAnnouncement(); // Try again for the same broadcast.
+                return;
+            }
+            announce(left);
+            scheduleAnnouncement();
+        });
+    }
+
+    /**
+     * Broadcasts the amount of time remaining in the match.
+     *
+     * @param timeLeft The number of seconds remaining.
+     */
+    private void announce(long timeLeft) {
+        if (main.match().getStatus() != WarMatch.Status.PLAYING) return;
+        if (timeLeft % 60 == 0) {
+            long minutes = (timeLeft / 60); // Calculates number of minutes remaining.
+            String s = (minutes == 1 ? "" : "s"); // Should it be 'minute' or 'minutes'?
+
+            // Broadcasts the amount of minutes remaining.
+            main.broadcasts().broadcast(null, "There is " + minutes + " minute" + s + " remaining!");
+        } else if (timeLeft == 30) {
+            // Broadcasts that there is 30 seconds remaining.
+            main.broadcasts().broadcast(null, "There is " + timeLeft + " seconds remaining!");
+        } else {
+            String s = (timeLeft == 1 ? "" : "s"); // Calculates number of seconds remaining.
+
+            // Broadcasts the amount of seconds.
+            main.broadcasts().broadcast(null, "There is " + timeLeft + " second" + s + " remaining!");
+        }
+    }
+
     /**
      * Automatically balances everyone onto teams.
      */
     protected void autoAssign() {
-        // Keep a temporary list of people who have not being assigned to a team.
-        ArrayList<WarPlayer> targets = new ArrayList<>(main.getWarPlayers().values());
-        while (targets.size() != 0) { // Keep looping until this array is empty.
-            WarPlayer target = targets.get(rng.nextInt(targets.size())); // Gets a random player.
-            if (target.isJoined()) {
-                // If joined, use entryHandle() to put them on the lowest team.
-                entryHandle(target);
+        assign(main.getWarPlayers().values());
+    }
+
+    /**
+     * Returns the strategy used to decide which team
+     * players join when they don't choose one.
+     *
+     * @return The team balancer.
+     */
+    public TeamBalancer getBalancer() {
+        return balancer;
+    }
+
+    /**
+     * Changes how players are balanced amongst teams.
+     * Gamemodes should call this in initialize() or their
+     * constructor, i.e. setBalancer(new SkillTeamBalancer());
+     * By default, players join the smallest team.
+     *
+     * @param balancer The team balancer.
+     */
+    protected void setBalancer(TeamBalancer balancer) {
+        this.balancer = balancer;
+        if (isActive()) this.balancer.reset(teams.values(), main.getWarPlayers().values());
+    }
+
+    /**
+     * Assigns many players to teams at once.
+     * <p>
+     * The whole allocation is worked out first, so teams are
+     * balanced and never go over their maximum size, and team
+     * preferences are honoured when they don't unbalance
+     * the teams. Players who did not join, or who don't fit,
+     * will spectate.
+     * <p>
+     * The teleports, kits and scoreboard changes are then
+     * carried out a few at a time, so assigning a full server
+     * doesn't all happen in the same tick. If this is called
+     * from initialize(), the match is held until everyone has
+     * been assigned, so players put on a team first don't get
+     * a head start.
+     *
+     * @param targets The players to assign.
+     */
+    public void assign(Collection<WarPlayer> targets) {
+        cancelAssignment(); // Stop any assignment that is still running.
+        assigning = planAssignment(targets).entrySet().iterator();
+        main.visibility().beginBatch(); // Work out who can see who once everyone is assigned.
+        long budget = main.plugin().getConfig().getLong("settings.assign_budget", 10) * 1000000L;
+        if (assignSome(budget))
+            finishAssignment(); // Everyone was assigned straight away.
+        else
+            assignTask = Bukkit.getScheduler().runTaskTimer(main.plugin(), () -> {
+                if (assignSome(budget)) finishAssignment();
+            }, 1L, 1L);
+    }
+
+    /**
+     * Returns whether or not a bulk assignment
+     * is still being carried out.
+     *
+     * @return Whether players are still being assigned.
+     */
+    public boolean isAssigning() {
+        return assigning != null;
+    }
+
+    /**
+     * Works out which team every player will be put on.
+     *
+     * @param targets The players to assign.
+     * @return Every player and their team, or null if they will spectate.
+     */
+    private LinkedHashMap<WarPlayer, WarTeam> planAssignment(Collection<WarPlayer> targets) {
+        List<WarPlayer> order = new ArrayList<>(targets);
+        Collections.shuffle(order, rng); // Whoever is left over when teams are full is random.
+
+        LinkedHashMap<WarPlayer, WarTeam> plan = new LinkedHashMap<>();
+        List<WarPlayer> unplaced = new ArrayList<>();
+        for (WarPlayer wp : order) { // Honour preferences first.
+            if (!wp.isJoined()) {
+                plan.put(wp, null);
+                continue;
+            }
+            WarTeam wanted = wp.getPreferredTeam() == null ? null : teams.get(wp.getPreferredTeam());
+            if (wanted != null && balancer.accepts(wanted)) {
+                // Joining the team they want keeps the teams balanced.
+                plan(wp, wanted);
+                plan.put(wp, wanted);
+            } else unplaced.add(wp);
+        }
+        for (WarPlayer wp : unplaced) { // Everyone else is balanced.
+            WarTeam team = balancer.pick(wp);
+            if (team != null) plan(wp, team);
+            plan.put(wp, team);
+        }
+        balancer.endPlan(); // Nobody has actually moved yet.
+        return plan;
+    }
+
+    /**
+     * Tells the balancer about a planned move,
+     * so the rest of the plan takes it into account.
+     *
+     * @param wp   The player.
+     * @param team The team they will join.
+     */
+    private void plan(WarPlayer wp, WarTeam team) {
+        balancer.plan(wp, wp.getCurrentTeam(), team);
+    }
+
+    /**
+     * Carries out planned assignments until the time budget
+     * is used up. At least one player is assigned every time.
+     *
+     * @param budget The time, in nanoseconds, that may be spent.
+     * @return Whether or not the whole assignment is done.
+     */
+    private boolean assignSome(long budget) {
+        long deadline = System.nanoTime() + budget;
+        while (assigning.hasNext()) {
+            Map.Entry<WarPlayer, WarTeam> next = assigning.next();
+            WarPlayer target = next.getKey();
+            if (main.getWarPlayers().get(target.getPlayer().getUniqueId()) == target) {
+                // Only assign players who are still online.
+                if (next.getValue() != null)
+                    entryHandle(target, next.getValue()); // Put them on their planned team.
+                else if (target.isJoined()) {
+                    // They wanted to play, but every team is full.
+                    target.sendMessage("All teams are full, please try joining later.");
+                    target.setJoined(false);
+                }
                 if (!target.isJoined()) {
-                    // If, for some reason, they did not get put on a team, assume them as spectating.
+                    // They don't want to play, or did not get put on a team. Assume them as spectating.
                     target.getPlayer().setGameMode(GameMode.CREATIVE);
                     main.giveSpectatorKit(target);
                 }
-            } else {
-                // They don't want to play. Assume them as spectating.
-                target.getPlayer().setGameMode(GameMode.CREATIVE);
-                main.giveSpectatorKit(target);
             }
-            targets.remove(target);
+            if (System.nanoTime() >= deadline) return !assigning.hasNext(); // Out of time, continue next tick.
         }
+        return true;
+    }
+
+    /**
+     * Ends a bulk assignment once everyone has been assigned,
+     * and begins the match if it was being held for it.
+     */
+    private void finishAssignment() {
+        boolean held = isHeld();
+        cancelAssignment();
+        if (held) begin(); // Everyone is in place, so the match can begin.
+    }
+
+    /**
+     * Stops carrying out a bulk assignment, if one is
+     * running. Anyone not assigned yet is left as they are.
+     */
+    private void cancelAssignment() {
+        if (assignTask != null) assignTask.cancel();
+        assignTask = null;
+        if (assigning == null) return;
+        assigning = null;
+        main.visibility().endBatch();
     }
 
     /**
      * This procedure is automatically called by the runtimeTask
-     * every 20 ticks, or every 1 second. You must configure this
+     * every second of the match. You must configure this
      * procedure, but you don't have to use it if it isn't needed.
      * <p>
      * An example usage of this would be to shoot up a firework every
@@ -453,7 +704,14 @@ public abstract class WarMode implements Listener {
     public void deactivate() {
         if (runtimeTask != null) runtimeTask.cancel(); // If the task isn't null already, cancel the task first.
         runtimeTask = null; // Free up the task in memory.
-        HandlerList.unregisterAll(this); // Unregister all listener handlers for this class. (Spigot)
+        main.match().timer().cancelAll(); // Cancels everything else scheduled during the match.
+        sidebar.clear(); // Hides everyone's sidebar.
+        announcement = null;
+        cancelAssignment(); // Stop assigning teams if it hasn't finished yet.
+        main.listeners().unregister(this); // Unregister all listener handlers for this class. (Spigot)
+        if (map != null) main.listeners().unregister(map); // And for the map too.
+        main.world().releaseSpawns(); // Lets the server unload the spawn chunks again.
+        if (map != null) map.saveRegions(); // Cache the plateau for the next time this map is played.
         setActive(false); // Sets this gamemode as inactive and will be ignored by the program.
         resetCommon(); // Resets common values in external Gamemode class.
         reset(); // Resets any other values in the external class.
@@ -467,13 +725,14 @@ public abstract class WarMode implements Listener {
      * gamemode classes, such as the time elapsed.
      */
     private void resetLocalValues() {
-        timeElapsed = 0; // Sets time elapsed back to 0 seconds.
+        main.match().clock().reset(); // Sets time elapsed back to 0 seconds.
         permaDeath = false; // Sets permadeath for this gamemode back to the default of false.
 
         for (WarTeam team : teams.values()) {
             for (OfflinePlayer pl : team.getBukkitTeam().getPlayers())
                 team.getBukkitTeam().removePlayer(pl); // Removes the player from the defined Spigot team. (Spigot)
             team.setBukkitTeam(null); // Sets the associated Spigot team to null to free up memory.
+            team.clearMembers(); // Forgets about the team's members.
         }
         spec = null; // Removes the spectator team to free up memory.
         score = Bukkit.getScoreboardManager().getNewScoreboard(); // Re-assign the scoreboard field with a fresh one.
@@ -491,6 +750,18 @@ public abstract class WarMode implements Listener {
         return score;
     }
 
+    /**
+     * Returns the renderer that draws sidebars over the
+     * global Scoreboard. Each player can be shown the sidebar
+     * of their team, or their own, and only the lines that
+     * changed since they last saw it are sent.
+     *
+     * @return The sidebar renderer.
+     */
+    public ScoreboardRenderer sidebar() {
+        return sidebar;
+    }
+
     /**
      * Returns whether or not this gamemode is marked
      * as active or not. A gamemode should only be marked
@@ -536,7 +807,7 @@ public abstract class WarMode implements Listener {
             if (preference != null && preference.length == 1)
                 carryOutTeam(wp, preference[0]);
             else
-                carryOutTeam(wp, getSmallestTeam());
+                carryOutTeam(wp, balancer.pick(wp));
             main.plugin().getServer().getPluginManager().callEvent(new MatchPlayerJoinEvent(wp)); // Call an event.
         } else { // If the player did not join, execute a leaving handle.
             if (!permaDeath)
@@ -546,6 +817,8 @@ public abstract class WarMode implements Listener {
             pl.teleport(map().getSpectatorSpawn()); // Teleports the player to the map's spectator spawnpoint. (Spigot)
             pl.setGameMode(GameMode.CREATIVE); // Sets the player to spectator mode. (Spigot)
             team.getBukkitTeam().removeEntry(pl.getName()); // Removes the player from their Spigot team. (Spigot)
+            team.removeMember(pl.getUniqueId()); // Removes the player from the team's members.
+            balancer.left(wp, team); // The team has room again.
             spec.addEntry(pl.getName()); // Assigns the player to the spectator team. (Spigot).
             main.items().clear(wp); // Clears the player's inventory.
             main.giveSpectatorKit(wp); // Gives the player a spectator kit.
@@ -563,12 +836,12 @@ public abstract class WarMode implements Listener {
      * //TODO: Add team preference for debug?
      *
      * @param dp   The player to assign a team.
-     * @param team The team to assign to a player.
+     * @param team The team to assign to a player, or null if every team is full.
      */
     private void carryOutTeam(WarPlayer dp, WarTeam team) {
         Player pl = dp.getPlayer(); // Assigns Spigot player implementation.
 
-        if (team.isFull()) {
+        if (team == null || team.isFull()) {
             //
             pl.sendMessage("All teams are full, please try joining later.");
             dp.setJoined(false);
@@ -578,9 +851,15 @@ public abstract class WarMode implements Listener {
         pl.teleport(randomSpawnFrom(teamSpawns.get(team.getTeamName())).toLocation(main.match().getCurrentWorld(), true)); // Teleports player to random team spawnpoint. (Spigot)
         pl.setGameMode(GameMode.SURVIVAL); // Sets the player's gamemode to survival. (Spigot)
         pl.setFallDistance(0F); // Reset fall distance. (Spigot)
+        if (dp.getCurrentTeam() != null) {
+            dp.getCurrentTeam().removeMember(pl.getUniqueId()); // Spigot moves the entry, so move the member too.
+            balancer.left(dp, dp.getCurrentTeam());
+        }
         dp.setCurrentTeam(team); // Assigns the player's team.
         spec.removeEntry(pl.getName()); // Removes the player from the spectator team. (Spigot)
         team.getBukkitTeam().addEntry(pl.getName()); // Assigns the player to the team's Spigot team. (Spigot)
+        team.addMember(pl.getUniqueId()); // Counts the player as one of the team's members.
+        balancer.joined(dp, team); // Lets the balancer know the team is bigger.
         map().applyInv(dp); // Applies the map's inventory to the player.
 
         TextComponent comp = new TextComponent("You have joined the ");
@@ -590,35 +869,14 @@ public abstract class WarMode implements Listener {
         onJoin(dp);
     }
 
-    /**
-     * Searches through all current teams in the match for
-     * the team with the least amount of members.
-     *
-     * @return The team with the least members.
-     */
-    private WarTeam getSmallestTeam() {
-        WarTeam found = null; // The 'result' field.
-        int size = -1; // The initial 'highest' size.
-        for (WarTeam team : teams.values()) { // Loops through every team.
-            if (size == -1) {
-                found = team; // Recognises this team as the one with the least amount of members.
-                size = team.getBukkitTeam().getEntries().size(); // Assigns the lowest amount of members to the amount of members in this team.
-            } else if (team.getBukkitTeam().getEntries().size() < size) {
-                found = team; // Sets this as the smallest team.
-                size = team.getBukkitTeam().getEntries().size(); // Assigns new smallest team size.
-            }
-        }
-        return found;
-    }
-
     /**
      * Returns how long the map is configured to run for.
      * All maps must end after a certain period of time.
      *
      * @return The duration of the map.
      */
-    private Long getMatchDuration() {
-        return (Long) map().attributes.get("matchDuration");
+    private long getMatchDuration() {
+        return map().attributes.num(MapAttribute.MATCH_DURATION);
     }
 
     /**
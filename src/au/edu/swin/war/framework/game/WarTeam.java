@@ -6,6 +6,11 @@ import net.md_5.bungee.api.chat.TextComponent;
 import org.bukkit.ChatColor;
 import org.bukkit.scoreboard.Team;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * This (non-extendable) class handles all
@@ -31,6 +36,8 @@ public final class WarTeam {
     // Since the WarTeam is cloned upon usage, these variables reset.
     private int kills;
     private int deaths;
+    private final Set<UUID> members; // The players on this team.
+    private final AtomicInteger size; // How many players are on this team.
     /*  END RECORD  */
 
     /**
@@ -51,6 +58,8 @@ public final class WarTeam {
         this.bukkitTeam = null;
         kills = 0;
         deaths = 0;
+        members = new HashSet<>();
+        size = new AtomicInteger();
     }
 
     /**
@@ -153,7 +162,65 @@ public final class WarTeam {
      * @return Whether team is full or not.
      */
     boolean isFull() {
-        return bukkitTeam.getEntries().size() >= maxTeamSize;
+        return !hasRoomFor(size.get());
+    }
+
+    /**
+     * Returns whether or not the team would accept another
+     * member if it had this many members. A maximum team
+     * size below 0 means the team has no limit.
+     *
+     * @param members The amount of members.
+     * @return Whether another member would fit or not.
+     */
+    public boolean hasRoomFor(int members) {
+        return maxTeamSize == null || maxTeamSize < 0 || members < maxTeamSize;
+    }
+
+    /**
+     * Returns how many players are on this team.
+     * This is counted as players join and leave, rather
+     * than asking the Spigot team, which copies its entries.
+     *
+     * @return The team's size.
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the players on this team.
+     *
+     * @return The UUIDs of the team's members.
+     */
+    public Set<UUID> getMembers() {
+        return Collections.unmodifiableSet(members);
+    }
+
+    /**
+     * Adds a player to this team's members.
+     *
+     * @param member The player's UUID.
+     */
+    void addMember(UUID member) {
+        if (members.add(member)) size.incrementAndGet();
+    }
+
+    /**
+     * Removes a player from this team's members.
+     *
+     * @param member The player's UUID.
+     */
+    void removeMember(UUID member) {
+        if (members.remove(member)) size.decrementAndGet();
+    }
+
+    /**
+     * Removes every player from this team's members.
+     */
+    void clearMembers() {
+        members.clear();
+        size.set(0);
     }
 
     /**
@@ -163,7 +230,7 @@ public final class WarTeam {
      */
     public TextComponent getHoverInformation() {
         TextComponent result = new TextComponent(getTeamColor() + "[" + getTeamName() + "]" + ChatColor.WHITE);
-        result.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new ComponentBuilder("Members: " + getBukkitTeam().getEntries().size() + "/" + maxTeamSize + "\nKills: " + kills + "\nDeaths: " + deaths).create()));
+        result.setHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, new ComponentBuilder("Members: " + size.get() + "/" + maxTeamSize + "\nKills: " + kills + "\nDeaths: " + deaths).create()));
         return result;
     }
 
@@ -0,0 +1,32 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.World;
+
+/**
+ * A region shaped like a box.
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class CuboidRegion extends Region {
+
+    /**
+     * Creates a box between two corners, inclusive.
+     *
+     * @param name The region's name.
+     * @param x1   First corner X.
+     * @param y1   First corner Y.
+     * @param z1   First corner Z.
+     * @param x2   Second corner X.
+     * @param y2   Second corner Y.
+     * @param z2   Second corner Z.
+     */
+    public CuboidRegion(String name, int x1, int y1, int z1, int x2, int y2, int z2) {
+        super(name, x1, y1, z1, x2, y2, z2);
+    }
+
+    @Override
+    protected boolean contains(World world, int x, int y, int z) {
+        return true; // The box is the bounding box.
+    }
+}
@@ -0,0 +1,41 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.World;
+
+/**
+ * A region shaped like an upright cylinder.
+ * A block is inside if its centre is.
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class CylinderRegion extends Region {
+
+    private final double centreX, centreZ; // The middle of the cylinder.
+    private final double radiusSquared; // The radius of the cylinder, squared.
+
+    /**
+     * Creates a cylinder.
+     *
+     * @param name    The region's name.
+     * @param centreX Centre X.
+     * @param centreZ Centre Z.
+     * @param radius  Radius, in blocks.
+     * @param minY    Lowest Y.
+     * @param maxY    Highest Y.
+     */
+    public CylinderRegion(String name, double centreX, double centreZ, double radius, int minY, int maxY) {
+        super(name, (int) Math.floor(centreX - radius), minY, (int) Math.floor(centreZ - radius),
+                (int) Math.ceil(centreX + radius), maxY, (int) Math.ceil(centreZ + radius));
+        this.centreX = centreX;
+        this.centreZ = centreZ;
+        this.radiusSquared = radius * radius;
+    }
+
+    @Override
+    protected boolean contains(World world, int x, int y, int z) {
+        double dx = x + 0.5 - centreX;
+        double dz = z + 0.5 - centreZ;
+        return dx * dx + dz * dz <= radiusSquared;
+    }
+}
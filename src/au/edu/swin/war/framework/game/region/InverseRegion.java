@@ -0,0 +1,32 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.World;
+
+/**
+ * A region covering everything outside of another
+ * region, such as everywhere outside a map's border.
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class InverseRegion extends Region {
+
+    private final Region inside; // The region that is excluded.
+
+    /**
+     * Creates a region covering everything outside another.
+     *
+     * @param name   The region's name.
+     * @param inside The region that is excluded.
+     */
+    public InverseRegion(String name, Region inside) {
+        super(name, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        this.inside = inside;
+    }
+
+    @Override
+    protected boolean contains(World world, int x, int y, int z) {
+        return !inside.inside(world, x, y, z);
+    }
+}
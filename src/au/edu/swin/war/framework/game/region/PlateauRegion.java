@@ -0,0 +1,163 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A region covering every column of the map that
+ * doesn't have bedrock at a certain height. Maps use
+ * this to only allow building above a bedrock plateau.
+ * <p>
+ * Rather than looking at the world on every check, the
+ * plateau layer of each chunk is scanned once into a
+ * bitmap of 256 bits, one for every column. Chunks are
+ * scanned when the map is prepared, or the first time
+ * they are checked. The bitmaps can be saved to a cache
+ * file so the next time the map is played, nothing needs
+ * to be scanned at all.
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class PlateauRegion extends Region {
+
+    private static final int MAGIC = 0x504C5431; // "PLT1", the start of every cache file.
+
+    private final int plateauY; // The height of the bedrock plateau.
+    private final Map<Long, long[]> columns; // Which columns of each chunk have bedrock, by chunk.
+    private boolean changed; // Whether or not chunks have been scanned since the cache was loaded.
+
+    /**
+     * Creates a plateau region.
+     *
+     * @param name     The region's name.
+     * @param plateauY The height of the bedrock plateau.
+     */
+    public PlateauRegion(String name, int plateauY) {
+        super(name, Integer.MIN_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE,
+                Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        this.plateauY = plateauY;
+        this.columns = new HashMap<>();
+    }
+
+    @Override
+    protected boolean contains(World world, int x, int y, int z) {
+        long[] bits = columns.get(key(x >> 4, z >> 4));
+        if (bits == null) bits = scan(world.getChunkAt(x >> 4, z >> 4));
+        int column = ((z & 15) << 4) | (x & 15);
+        return (bits[column >> 6] & (1L << column)) == 0; // Inside if there is no bedrock.
+    }
+
+    /**
+     * Scans every chunk that is loaded and hasn't been
+     * scanned yet. Anything else is scanned when needed.
+     *
+     * @param world The world the map is loaded as.
+     * @return The number of chunks scanned.
+     */
+    public int prepare(World world) {
+        int scanned = 0;
+        for (Chunk chunk : world.getLoadedChunks())
+            if (!columns.containsKey(key(chunk.getX(), chunk.getZ()))) {
+                scan(chunk);
+                scanned++;
+            }
+        return scanned;
+    }
+
+    /**
+     * Scans the plateau layer of a chunk.
+     *
+     * @param chunk The chunk.
+     * @return The chunk's bitmap.
+     */
+    private long[] scan(Chunk chunk) {
+        long[] bits = new long[4];
+        for (int z = 0; z < 16; z++)
+            for (int x = 0; x < 16; x++)
+                if (chunk.getBlock(x, plateauY, z).getType() == Material.BEDROCK) {
+                    int column = (z << 4) | x;
+                    bits[column >> 6] |= 1L << column;
+                }
+        columns.put(key(chunk.getX(), chunk.getZ()), bits);
+        changed = true;
+        return bits;
+    }
+
+    /**
+     * Loads bitmaps from a cache file. Nothing is loaded if
+     * the file was made from a different version of the map
+     * or for a different plateau height.
+     *
+     * @param cache The cache file.
+     * @param stamp A stamp of the map's files, which changes if they do.
+     * @return Whether or not the cache was loaded.
+     */
+    public boolean load(File cache, long stamp) {
+        if (!cache.isFile()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cache)))) {
+            if (in.readInt() != MAGIC || in.readInt() != plateauY || in.readLong() != stamp)
+                return false; // Out of date, it will be overwritten.
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long key = in.readLong();
+                long[] bits = new long[4];
+                for (int j = 0; j < bits.length; j++)
+                    bits[j] = in.readLong();
+                columns.put(key, bits);
+            }
+            changed = false;
+            return true;
+        } catch (IOException e) {
+            columns.clear(); // A broken cache is no cache, scan instead.
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Saves the bitmaps to a cache file, if
+     * any chunks were scanned since it was loaded.
+     *
+     * @param cache The cache file.
+     * @param stamp A stamp of the map's files.
+     * @throws IOException Thrown if the cache couldn't be written.
+     */
+    public void save(File cache, long stamp) throws IOException {
+        if (!changed) return;
+        File parent = cache.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs())
+            throw new IOException("Could not create " + parent);
+        File temp = new File(cache.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(plateauY);
+            out.writeLong(stamp);
+            out.writeInt(columns.size());
+            for (Map.Entry<Long, long[]> entry : columns.entrySet()) {
+                out.writeLong(entry.getKey());
+                for (long bits : entry.getValue())
+                    out.writeLong(bits);
+            }
+        }
+        if (!temp.renameTo(cache) && (!cache.delete() || !temp.renameTo(cache)))
+            throw new IOException("Could not replace " + cache);
+        changed = false;
+    }
+
+    /**
+     * Packs chunk coordinates into one number.
+     *
+     * @param cx Chunk X.
+     * @param cz Chunk Z.
+     * @return The chunk key.
+     */
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,56 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.World;
+
+/**
+ * A region shaped like an upright prism with any
+ * flat outline. A block is inside if its centre is.
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class PolygonRegion extends Region {
+
+    private final double[] xs, zs; // The corners of the outline, in order.
+
+    /**
+     * Creates a polygon from its corners.
+     *
+     * @param name The region's name.
+     * @param xs   The X of every corner, in order.
+     * @param zs   The Z of every corner, in order.
+     * @param minY Lowest Y.
+     * @param maxY Highest Y.
+     */
+    public PolygonRegion(String name, double[] xs, double[] zs, int minY, int maxY) {
+        super(name, (int) Math.floor(min(xs)), minY, (int) Math.floor(min(zs)),
+                (int) Math.ceil(max(xs)), maxY, (int) Math.ceil(max(zs)));
+        if (xs.length != zs.length || xs.length < 3)
+            throw new IllegalArgumentException("Region " + name + " needs at least 3 corners");
+        this.xs = xs.clone();
+        this.zs = zs.clone();
+    }
+
+    @Override
+    protected boolean contains(World world, int x, int y, int z) {
+        double px = x + 0.5, pz = z + 0.5;
+        boolean inside = false;
+        // Count how many edges a line from the block crosses. Odd means inside.
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++)
+            if ((zs[i] > pz) != (zs[j] > pz) && px < (xs[j] - xs[i]) * (pz - zs[i]) / (zs[j] - zs[i]) + xs[i])
+                inside = !inside;
+        return inside;
+    }
+
+    private static double min(double[] values) {
+        double result = Double.POSITIVE_INFINITY;
+        for (double value : values) result = Math.min(result, value);
+        return result;
+    }
+
+    private static double max(double[] values) {
+        double result = Double.NEGATIVE_INFINITY;
+        for (double value : values) result = Math.max(result, value);
+        return result;
+    }
+}
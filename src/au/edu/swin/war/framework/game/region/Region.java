@@ -0,0 +1,207 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.World;
+
+/**
+ * This extensible class is a named area of a map
+ * with its own rules, such as no building inside
+ * of a team's spawn.
+ * <p>
+ * Every region has a bounding box, in block coordinates.
+ * Regions with a small enough bounding box are indexed by
+ * the chunks they cover, so only the regions near a block
+ * are ever checked. Regions covering the whole map are
+ * checked everywhere.
+ * <p>
+ * When regions overlap, the region with the highest priority
+ * that has a rule for what is happening decides.
+ * <p>
+ * By default, players who aren't affected by the match,
+ * such as spectators, are not held to a region's rules.
+ * Regions that shape the map itself should use bypassable(false).
+ *
+ * @version 1.0
+ * @see RegionIndex
+ * @since 1.1
+ */
+public abstract class Region {
+
+    private final String name; // The region's name.
+    final int minX, minY, minZ, maxX, maxY, maxZ; // The region's bounding box, inclusive.
+    private int governed; // A mask of the rules this region has.
+    private int allowed; // A mask of the rules this region allows.
+    private int priority; // Higher priority regions decide first.
+    private String message; // The message key sent to players who are denied.
+    private boolean bypassable; // Whether players not affected by the match ignore this region.
+
+    /**
+     * Region constructor.
+     *
+     * @param name The region's name.
+     * @param minX Lowest X.
+     * @param minY Lowest Y.
+     * @param minZ Lowest Z.
+     * @param maxX Highest X.
+     * @param maxY Highest Y.
+     * @param maxZ Highest Z.
+     */
+    protected Region(String name, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.name = name;
+        this.minX = Math.min(minX, maxX);
+        this.minY = Math.min(minY, maxY);
+        this.minZ = Math.min(minZ, maxZ);
+        this.maxX = Math.max(minX, maxX);
+        this.maxY = Math.max(minY, maxY);
+        this.maxZ = Math.max(minZ, maxZ);
+        this.message = "guard.border";
+        this.bypassable = true;
+    }
+
+    /**
+     * Returns whether or not a block is inside of this region.
+     * Only blocks inside the bounding box are ever checked.
+     *
+     * @param world The world the block is in.
+     * @param x     Block X.
+     * @param y     Block Y.
+     * @param z     Block Z.
+     * @return Whether the block is inside.
+     */
+    protected abstract boolean contains(World world, int x, int y, int z);
+
+    /**
+     * Returns whether or not a block is inside of this region,
+     * checking the bounding box first.
+     *
+     * @param world The world the block is in.
+     * @param x     Block X.
+     * @param y     Block Y.
+     * @param z     Block Z.
+     * @return Whether the block is inside.
+     */
+    public boolean inside(World world, int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ && contains(world, x, y, z);
+    }
+
+    /**
+     * Sets whether something is allowed inside of this region.
+     *
+     * @param rule  What is happening.
+     * @param allow Whether it is allowed.
+     * @return This region, so rules can be chained.
+     */
+    public Region rule(RegionRule rule, boolean allow) {
+        governed |= rule.bit();
+        if (allow) allowed |= rule.bit();
+        else allowed &= ~rule.bit();
+        return this;
+    }
+
+    /**
+     * Sets the priority of this region. When regions
+     * overlap, the highest priority decides first.
+     *
+     * @param priority The priority.
+     * @return This region, so settings can be chained.
+     */
+    public Region priority(int priority) {
+        this.priority = priority;
+        return this;
+    }
+
+    /**
+     * Sets the message sent to players who
+     * are denied by this region.
+     *
+     * @param message The message key.
+     * @return This region, so settings can be chained.
+     */
+    public Region message(String message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Sets whether or not players who aren't affected by the
+     * match may ignore this region's rules.
+     *
+     * @param bypassable Whether the region can be ignored.
+     * @return This region, so settings can be chained.
+     */
+    public Region bypassable(boolean bypassable) {
+        this.bypassable = bypassable;
+        return this;
+    }
+
+    /**
+     * Returns whether or not players who aren't affected
+     * by the match may ignore this region's rules.
+     *
+     * @return Whether the region can be ignored.
+     */
+    public boolean isBypassable() {
+        return bypassable;
+    }
+
+    /**
+     * Returns whether or not this region has a rule for something.
+     *
+     * @param rule What is happening.
+     * @return Whether this region decides it.
+     */
+    public boolean governs(RegionRule rule) {
+        return (governed & rule.bit()) != 0;
+    }
+
+    /**
+     * Returns whether or not this region allows something.
+     *
+     * @param rule What is happening.
+     * @return Whether it is allowed.
+     */
+    public boolean allows(RegionRule rule) {
+        return (allowed & rule.bit()) != 0;
+    }
+
+    /**
+     * Returns a mask of the rules this region has.
+     *
+     * @return The rule mask.
+     */
+    int governed() {
+        return governed;
+    }
+
+    /**
+     * Returns the region's name.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the region's priority.
+     *
+     * @return The priority.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Returns the message key sent to
+     * players who are denied by this region.
+     *
+     * @return The message key.
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,127 @@
+package au.edu.swin.war.framework.game.region;
+
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class finds which region decides what
+ * happens to a block.
+ * <p>
+ * Every region small enough is put into a bucket for each
+ * chunk it covers, so a block only checks the regions of
+ * its own chunk. Regions that cover too many chunks are
+ * added to every bucket instead. Each bucket is sorted by
+ * priority when the index is built.
+ *
+ * @version 1.0
+ * @see Region
+ * @since 1.1
+ */
+public final class RegionIndex {
+
+    private static final int MAX_CHUNKS = 4096; // Regions covering more chunks than this are checked everywhere.
+
+    private final HashMap<Long, Region[]> chunks; // The regions that may cover each chunk, by priority.
+    private final Region[] everywhere; // The regions that are checked in every chunk, by priority.
+    private final int governed; // A mask of every rule any region has.
+
+    /**
+     * Builds an index of regions.
+     *
+     * @param regions The regions, in the order they were added.
+     */
+    public RegionIndex(List<Region> regions) {
+        List<Region> sorted = new ArrayList<>(regions);
+        // Highest priority first. The sort is stable, so ties keep the order they were added in.
+        sorted.sort((a, b) -> Integer.compare(b.getPriority(), a.getPriority()));
+
+        List<Region> global = new ArrayList<>();
+        HashMap<Long, List<Region>> buckets = new HashMap<>();
+        int mask = 0;
+        for (Region region : sorted) {
+            mask |= region.governed();
+            long width = ((long) region.maxX >> 4) - (region.minX >> 4) + 1;
+            long depth = ((long) region.maxZ >> 4) - (region.minZ >> 4) + 1;
+            if (width * depth > MAX_CHUNKS) {
+                global.add(region);
+                continue;
+            }
+            for (int cx = region.minX >> 4; cx <= region.maxX >> 4; cx++)
+                for (int cz = region.minZ >> 4; cz <= region.maxZ >> 4; cz++)
+                    buckets.computeIfAbsent(key(cx, cz), k -> new ArrayList<>()).add(region);
+        }
+
+        chunks = new HashMap<>();
+        for (Map.Entry<Long, List<Region>> bucket : buckets.entrySet()) {
+            List<Region> merged = new ArrayList<>(bucket.getValue());
+            merged.addAll(global);
+            merged.sort((a, b) -> Integer.compare(b.getPriority(), a.getPriority()));
+            chunks.put(bucket.getKey(), merged.toArray(new Region[0]));
+        }
+        everywhere = global.toArray(new Region[0]);
+        governed = mask;
+    }
+
+    /**
+     * Returns whether or not any region has a rule for something.
+     * If not, there is no point looking anything up.
+     *
+     * @param rule What is happening.
+     * @return Whether any region decides it.
+     */
+    public boolean governs(RegionRule rule) {
+        return (governed & rule.bit()) != 0;
+    }
+
+    /**
+     * Returns the region that decides whether something
+     * is allowed at a block. This is the highest priority
+     * region containing the block with a rule for it.
+     *
+     * @param rule  What is happening.
+     * @param world The world the block is in.
+     * @param x     Block X.
+     * @param y     Block Y.
+     * @param z     Block Z.
+     * @return The deciding region, or null if no region decides.
+     */
+    public Region governing(RegionRule rule, World world, int x, int y, int z) {
+        if (!governs(rule)) return null;
+        Region[] candidates = chunks.get(key(x >> 4, z >> 4));
+        if (candidates == null) candidates = everywhere;
+        for (Region region : candidates)
+            if (region.governs(rule) && region.inside(world, x, y, z))
+                return region;
+        return null;
+    }
+
+    /**
+     * Returns whether or not something is allowed at a block.
+     *
+     * @param rule  What is happening.
+     * @param world The world the block is in.
+     * @param x     Block X.
+     * @param y     Block Y.
+     * @param z     Block Z.
+     * @return Whether it is allowed. If no region decides, it is.
+     */
+    public boolean allows(RegionRule rule, World world, int x, int y, int z) {
+        Region region = governing(rule, world, x, y, z);
+        return region == null || region.allows(rule);
+    }
+
+    /**
+     * Packs chunk coordinates into one number.
+     *
+     * @param cx Chunk X.
+     * @param cz Chunk Z.
+     * @return The chunk key.
+     */
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,26 @@
+package au.edu.swin.war.framework.game.region;
+
+/**
+ * This enum lists the things a region
+ * can allow or deny inside of it.
+ *
+ * @version 1.0
+ * @see Region
+ * @since 1.1
+ */
+public enum RegionRule {
+
+    PLACE, // Placing blocks.
+    BREAK, // Breaking blocks.
+    EXPLODE, // Blocks being destroyed by explosions.
+    ENTER; // Players walking in.
+
+    /**
+     * Returns the bit representing this rule in a mask.
+     *
+     * @return The rule's bit.
+     */
+    int bit() {
+        return 1 << ordinal();
+    }
+}
@@ -0,0 +1,126 @@
+package au.edu.swin.war.framework.stored;
+
+import au.edu.swin.war.framework.game.WarMap;
+import au.edu.swin.war.framework.game.WarMode;
+import org.bukkit.World;
+
+/**
+ * This class records everything about a round that
+ * is fixed once its world has been loaded: the world,
+ * its round ID, and the map and gamemode being played.
+ * <p>
+ * Holding on to the world means it never has to be
+ * looked up by name again. Once the round's world is
+ * restored, the record is invalidated and lets go of it.
+ *
+ * @version 1.0
+ * @see au.edu.swin.war.framework.util.modules.WorldUtility
+ * @since 1.1
+ */
+public class RoundContext {
+
+    private final long roundID; // The 5-digit round ID of the world.
+    private final String mapName; // The name of the map loaded as the world.
+    private final WarMap map; // The running instance of the map, if it is cached.
+    private WarMode mode; // The gamemode being played, once it is known.
+    private World world; // The round's world, or null once invalidated.
+
+    /**
+     * Creates a record of a round.
+     *
+     * @param roundID The round ID of the world.
+     * @param mapName The name of the map.
+     * @param map     The running instance of the map.
+     * @param mode    The gamemode being played, if it is known yet.
+     * @param world   The round's world.
+     */
+    public RoundContext(long roundID, String mapName, WarMap map, WarMode mode, World world) {
+        this.roundID = roundID;
+        this.mapName = mapName;
+        this.map = map;
+        this.mode = mode;
+        this.world = world;
+    }
+
+    /**
+     * Returns the round ID of the world.
+     *
+     * @return The round ID.
+     */
+    public long getRoundID() {
+        return roundID;
+    }
+
+    /**
+     * Returns the name of the map loaded as the world.
+     *
+     * @return The map name.
+     */
+    public String getMapName() {
+        return mapName;
+    }
+
+    /**
+     * Returns the running instance of the map.
+     *
+     * @return The map.
+     */
+    public WarMap getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the gamemode being played.
+     *
+     * @return The gamemode, or null if it isn't known yet.
+     */
+    public WarMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Sets the gamemode being played, once it is chosen.
+     *
+     * @param mode The gamemode.
+     */
+    public void setMode(WarMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the round's world.
+     *
+     * @return The world, or null if the round has been restored.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Returns whether or not something is in this round's world.
+     * This is just a reference check, so it is cheap enough
+     * to use in any listener.
+     *
+     * @param world The world to check.
+     * @return Whether it is this round's world.
+     */
+    public boolean isWorld(World world) {
+        return world != null && world == this.world;
+    }
+
+    /**
+     * Returns whether or not the round's world is still loaded.
+     *
+     * @return Whether the record can still be used.
+     */
+    public boolean isValid() {
+        return world != null;
+    }
+
+    /**
+     * Lets go of the world once it has been restored.
+     */
+    public void invalidate() {
+        world = null;
+    }
+}
@@ -0,0 +1,157 @@
+package au.edu.swin.war.framework.stored;
+
+import org.bukkit.World;
+
+import java.io.File;
+import java.util.concurrent.Future;
+
+/**
+ * This class records a map that is being copied into
+ * its round folder ahead of time, so that the copy does
+ * not have to happen on the main thread when cycling.
+ * <p>
+ * The status is written by the background thread doing
+ * the copy and read by the main thread, so it is volatile.
+ *
+ * @version 1.0
+ * @see au.edu.swin.war.framework.util.modules.WorldUtility
+ * @since 1.1
+ */
+public class StagedMap {
+
+    private final String map; // The name of the map being staged.
+    private final long roundID; // The 5-digit round ID the map is being staged to.
+    private volatile Status status; // The current state of the staging.
+    private Future<File> future; // The background task copying the map.
+    private World world; // The world, if it has already been loaded into the pool.
+
+    /**
+     * Creates a record of a map being staged.
+     *
+     * @param map     The name of the map.
+     * @param roundID The round ID the map will be staged to.
+     */
+    public StagedMap(String map, long roundID) {
+        this.map = map;
+        this.roundID = roundID;
+        this.status = Status.QUEUED;
+    }
+
+    /**
+     * Returns the name of the map being staged.
+     *
+     * @return The map name.
+     */
+    public String getMap() {
+        return map;
+    }
+
+    /**
+     * Returns the round ID the map is being staged to.
+     *
+     * @return The round ID.
+     */
+    public long getRoundID() {
+        return roundID;
+    }
+
+    /**
+     * Returns the current state of the staging.
+     *
+     * @return The staging status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Redefines the state of the staging.
+     *
+     * @param status The new staging status.
+     */
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    /**
+     * Returns the future of the background copy.
+     * This can be waited on if the copy must be finished.
+     *
+     * @return The background copy's future.
+     */
+    public Future<File> getFuture() {
+        return future;
+    }
+
+    /**
+     * Assigns the future of the background copy.
+     *
+     * @param future The background copy's future.
+     */
+    public void setFuture(Future<File> future) {
+        this.future = future;
+    }
+
+    /**
+     * Returns the world this map has been loaded as.
+     * This is only set once a pooled map is loaded.
+     *
+     * @return The loaded world, if any.
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * Assigns the world this map has been loaded as.
+     *
+     * @param world The loaded world.
+     */
+    public void setWorld(World world) {
+        this.world = world;
+        this.status = Status.LOADED;
+    }
+
+    /**
+     * Returns whether or not the world for this
+     * map is already loaded and ready to be played.
+     *
+     * @return Whether the staged map is loaded.
+     */
+    public boolean isLoaded() {
+        return status == Status.LOADED;
+    }
+
+    /**
+     * Returns whether or not the map files are
+     * completely copied and ready to be loaded.
+     *
+     * @return Whether the staged map is ready.
+     */
+    public boolean isReady() {
+        return status == Status.READY;
+    }
+
+    /**
+     * Stops the background copy if it is still running.
+     */
+    public void cancel() {
+        if (future != null && !future.isDone())
+            future.cancel(true);
+        if (status != Status.READY && status != Status.LOADED)
+            status = Status.CANCELLED;
+    }
+
+    /**
+     * This enumerated type defines each
+     * stage a staged map can be in.
+     */
+    public enum Status {
+        QUEUED,
+        COPYING,
+        READY,
+        LOADED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -0,0 +1,177 @@
+package au.edu.swin.war.framework.util;
+
+/**
+ * This class keeps track of how long the match has
+ * been running, both in server ticks and in real time.
+ * <p>
+ * When the server runs below 20 ticks per second, the two
+ * drift apart. A map chooses which one its match duration
+ * is measured in, and getSeconds() follows that choice.
+ * Both are still available, for gamemodes that need the other.
+ * <p>
+ * Reading the clock only reads the timer's tick and
+ * System.nanoTime(), so it is cheap enough to use in
+ * any listener.
+ *
+ * @version 1.0
+ * @see WarMatch#clock()
+ * @since 1.1
+ */
+public class MatchClock {
+
+    private static final long NANOS_PER_TICK = 50000000L; // How long a tick is at 20 ticks per second.
+
+    private final MatchTimer timer; // The timer, whose tick is the game time.
+    private boolean realTime; // Whether or not the match is measured in real time.
+    private boolean running; // Whether or not the clock is running.
+    private long startTick; // The timer's tick when the match started.
+    private long startNanos; // The real time when the match started.
+    private long stopTicks, stopNanos; // The time elapsed when the clock was stopped.
+    private long sampleTick, sampleNanos; // When the tick rate was last measured.
+    private double tickNanos; // How long a tick has taken recently, on average.
+
+    /**
+     * Creates a clock that is not running.
+     *
+     * @param timer The match timer.
+     */
+    MatchClock(MatchTimer timer) {
+        this.timer = timer;
+        this.tickNanos = NANOS_PER_TICK;
+    }
+
+    /**
+     * Starts the clock from zero.
+     * The match timer must already be running.
+     *
+     * @param realTime Whether or not the match is measured in real time.
+     */
+    public void start(boolean realTime) {
+        this.realTime = realTime;
+        this.running = true;
+        startTick = sampleTick = timer.getTick();
+        startNanos = sampleNanos = System.nanoTime();
+        tickNanos = NANOS_PER_TICK;
+    }
+
+    /**
+     * Stops the clock. The time elapsed can still be
+     * read until the clock is reset or started again.
+     */
+    public void stop() {
+        if (!running) return;
+        stopTicks = getTicks();
+        stopNanos = getNanos();
+        running = false;
+    }
+
+    /**
+     * Stops the clock, and sets it back to zero.
+     */
+    public void reset() {
+        running = false;
+        stopTicks = 0;
+        stopNanos = 0;
+    }
+
+    /**
+     * Returns whether or not the clock is running.
+     *
+     * @return Whether it is running.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns whether the match is measured in
+     * real time, rather than in server ticks.
+     *
+     * @return Whether it is measured in real time.
+     */
+    public boolean isRealTime() {
+        return realTime;
+    }
+
+    /**
+     * Returns the number of server ticks
+     * since the match started.
+     *
+     * @return The ticks elapsed.
+     */
+    public long getTicks() {
+        return running ? timer.getTick() - startTick : stopTicks;
+    }
+
+    /**
+     * Returns the real time since the match started.
+     *
+     * @return The nanoseconds elapsed.
+     */
+    public long getNanos() {
+        return running ? System.nanoTime() - startNanos : stopNanos;
+    }
+
+    /**
+     * Returns the real time since the match started.
+     *
+     * @return The milliseconds elapsed.
+     */
+    public long getMillis() {
+        return getNanos() / 1000000L;
+    }
+
+    /**
+     * Returns the time since the match started, in whichever
+     * time the match is measured in. 20 ticks is one second.
+     *
+     * @return The seconds elapsed.
+     */
+    public double getSeconds() {
+        return realTime ? getNanos() / 1e9 : getTicks() / 20.0;
+    }
+
+    /**
+     * Moves the clock so that a certain amount
+     * of time has elapsed. Mainly for debugging purposes.
+     *
+     * @param seconds The seconds elapsed.
+     */
+    public void setSeconds(double seconds) {
+        long ticks = (long) (seconds * 20);
+        long nanos = (long) (seconds * 1e9);
+        if (running) {
+            startTick = timer.getTick() - ticks;
+            startNanos = System.nanoTime() - nanos;
+        } else {
+            stopTicks = ticks;
+            stopNanos = nanos;
+        }
+    }
+
+    /**
+     * Measures how long ticks are currently taking. Call this
+     * every so often, so ticksUntil() keeps up with the server.
+     */
+    public void sample() {
+        long tick = timer.getTick(), nanos = System.nanoTime();
+        if (tick > sampleTick)
+            tickNanos = (tickNanos + (double) (nanos - sampleNanos) / (tick - sampleTick)) / 2; // Favour recent ticks.
+        sampleTick = tick;
+        sampleNanos = nanos;
+    }
+
+    /**
+     * Returns the number of ticks until the clock reads a
+     * certain time. In real time this is an estimate, based on
+     * how long ticks are currently taking, so anything scheduled
+     * this way should check the clock again when it runs.
+     *
+     * @param seconds The time on the clock.
+     * @return The ticks until then, at least 1.
+     */
+    public long ticksUntil(double seconds) {
+        double ticks = realTime ? (seconds * 1e9 - getNanos()) / tickNanos : seconds * 20 - getTicks();
+        return Math.max(1, (long) Math.ceil(ticks - 1e-9));
+    }
+}
@@ -0,0 +1,249 @@
+package au.edu.swin.war.framework.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * This class schedules things to happen during a match,
+ * such as countdowns, respawns and objectives.
+ * <p>
+ * Everything is kept in a hierarchical timer wheel of four
+ * levels with 64 slots each. The first level holds anything
+ * due in the next 64 ticks, one slot per tick. Each level
+ * after that covers 64 times as long, and its entries move
+ * down a level as they get closer. Scheduling or cancelling
+ * something only links or unlinks it from one slot, and
+ * each tick only looks at the slot that is due.
+ * <p>
+ * The whole wheel is driven by one Spigot task, and is
+ * cleared when the gamemode is deactivated, so gamemodes
+ * don't need to keep track of their own Spigot tasks.
+ *
+ * @version 1.0
+ * @see WarMatch#timer()
+ * @since 1.1
+ */
+public class MatchTimer extends WarModule {
+
+    private static final int BITS = 6; // Each level has 2^6 slots.
+    private static final int SLOTS = 1 << BITS; // The number of slots in a level.
+    private static final int MASK = SLOTS - 1; // Finds the slot of a tick.
+    private static final int LEVELS = 4; // The number of levels in the wheel.
+    private static final long SPAN = 1L << (BITS * LEVELS); // How far ahead the wheel reaches, in ticks.
+
+    private final Entry[][] wheel; // The first entry in every slot of every level.
+    private BukkitTask driver; // The Spigot task that turns the wheel every tick.
+    private long now; // The number of ticks since the timer was started.
+
+    /**
+     * Match timer constructor.
+     * We need to link back to the manager and plugin.
+     *
+     * @param main The supercontroller.
+     */
+    public MatchTimer(WarManager main) {
+        super(main);
+        wheel = new Entry[LEVELS][SLOTS];
+    }
+
+    /**
+     * Starts turning the wheel, if it isn't already.
+     */
+    public void start() {
+        if (driver == null)
+            driver = Bukkit.getScheduler().runTaskTimer(main().plugin(), this::advance, 1L, 1L);
+    }
+
+    /**
+     * Cancels everything that is scheduled,
+     * and stops turning the wheel.
+     */
+    public void cancelAll() {
+        if (driver != null) driver.cancel();
+        driver = null;
+        for (Entry[] level : wheel)
+            for (int slot = 0; slot < SLOTS; slot++) {
+                for (Entry entry = level[slot]; entry != null; entry = entry.next) {
+                    entry.cancelled = true;
+                    entry.owner = null;
+                }
+                level[slot] = null;
+            }
+        now = 0;
+    }
+
+    /**
+     * Returns the number of ticks since the timer was started.
+     *
+     * @return The current tick.
+     */
+    public long getTick() {
+        return now;
+    }
+
+    /**
+     * Runs something once, after a number of ticks.
+     *
+     * @param delay The number of ticks to wait. At least 1.
+     * @param task  What to run.
+     * @return The scheduled entry, which may be cancelled.
+     */
+    public Entry schedule(long delay, Runnable task) {
+        return insert(new Entry(task, now + Math.max(1, delay), 0));
+    }
+
+    /**
+     * Runs something once, after a number of seconds.
+     *
+     * @param seconds The number of seconds to wait.
+     * @param task    What to run.
+     * @return The scheduled entry, which may be cancelled.
+     */
+    public Entry scheduleSeconds(long seconds, Runnable task) {
+        return schedule(seconds * 20, task);
+    }
+
+    /**
+     * Runs something every so many ticks, until it is cancelled.
+     *
+     * @param delay  The number of ticks before it first runs. At least 1.
+     * @param period The number of ticks between each run. At least 1.
+     * @param task   What to run.
+     * @return The scheduled entry, which may be cancelled.
+     */
+    public Entry repeat(long delay, long period, Runnable task) {
+        return insert(new Entry(task, now + Math.max(1, delay), Math.max(1, period)));
+    }
+
+    /**
+     * Runs something every so many seconds, until it is cancelled.
+     *
+     * @param delay  The number of seconds before it first runs.
+     * @param period The number of seconds between each run.
+     * @param task   What to run.
+     * @return The scheduled entry, which may be cancelled.
+     */
+    public Entry repeatSeconds(long delay, long period, Runnable task) {
+        return repeat(delay * 20, period * 20, task);
+    }
+
+    /**
+     * Turns the wheel by one tick. Entries that are getting
+     * close move down a level, then everything due now is run.
+     */
+    private void advance() {
+        now++;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((now & ((1L << (BITS * level)) - 1)) != 0) break; // Lower levels haven't wrapped around.
+            cascade(level, (int) (now >>> (BITS * level)) & MASK);
+        }
+        int slot = (int) now & MASK;
+        Entry entry;
+        while ((entry = wheel[0][slot]) != null) { // Taken one at a time, as a task may cancel the others.
+            entry.cancel();
+            entry.cancelled = false;
+            if (entry.period > 0) {
+                entry.deadline += entry.period;
+                insert(entry); // Rescheduled first, so it may cancel itself. It is never due in this slot.
+            } else entry.cancelled = true; // It won't run again.
+            try {
+                entry.task.run();
+            } catch (Throwable e) {
+                main().plugin().log("A scheduled match task threw an exception!");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Moves every entry in a slot down to where it belongs now.
+     *
+     * @param level The level of the slot.
+     * @param slot  The slot.
+     */
+    private void cascade(int level, int slot) {
+        Entry entry = wheel[level][slot];
+        wheel[level][slot] = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            entry.owner = null;
+            entry.prev = entry.next = null;
+            insert(entry);
+            entry = next;
+        }
+    }
+
+    /**
+     * Links an entry into the slot it is due in.
+     *
+     * @param entry The entry.
+     * @return The same entry.
+     */
+    private Entry insert(Entry entry) {
+        if (entry.cancelled) return entry;
+        long due = Math.min(entry.deadline, now + SPAN - 1); // Further than that is moved along later.
+        long delta = due - now;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1)))
+            level++;
+        int slot = (int) (due >>> (BITS * level)) & MASK;
+        entry.owner = wheel[level];
+        entry.slot = slot;
+        entry.next = wheel[level][slot];
+        if (entry.next != null) entry.next.prev = entry;
+        wheel[level][slot] = entry;
+        return entry;
+    }
+
+    /**
+     * Something scheduled on the timer.
+     * Entries due on the same tick run in no particular order.
+     */
+    public final class Entry {
+
+        private final Runnable task; // What to run.
+        private final long period; // Ticks between runs, or 0 if it only runs once.
+        private long deadline; // The tick it is due to run on next.
+        private Entry prev, next; // Neighbours in the same slot.
+        private Entry[] owner; // The level it is linked into, or null if it isn't.
+        private int slot; // The slot it is linked into.
+        private boolean cancelled; // Whether or not it has been cancelled.
+
+        private Entry(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        /**
+         * Cancels the entry, so it doesn't run again.
+         */
+        public void cancel() {
+            cancelled = true;
+            if (owner == null) return;
+            if (prev != null) prev.next = next;
+            else owner[slot] = next;
+            if (next != null) next.prev = prev;
+            owner = null;
+            prev = next = null;
+        }
+
+        /**
+         * Returns whether or not the entry was cancelled.
+         *
+         * @return Whether it was cancelled.
+         */
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Returns the number of ticks until it next runs.
+         *
+         * @return Ticks remaining, or -1 if it won't run again.
+         */
+        public long remaining() {
+            return owner == null ? -1 : deadline - now;
+        }
+    }
+}
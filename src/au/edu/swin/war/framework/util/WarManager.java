@@ -2,10 +2,16 @@ package au.edu.swin.war.framework.util;
 
 import au.edu.swin.war.framework.WarPlayer;
 import au.edu.swin.war.framework.WarPlugin;
+import au.edu.swin.war.framework.util.modules.BroadcastUtility;
 import au.edu.swin.war.framework.util.modules.ItemUtility;
+import au.edu.swin.war.framework.util.modules.ListenerUtility;
+import au.edu.swin.war.framework.util.modules.MessageUtility;
 import au.edu.swin.war.framework.util.modules.StringUtility;
+import au.edu.swin.war.framework.util.modules.VisibilityUtility;
+import au.edu.swin.war.framework.util.modules.WarningThrottle;
 import au.edu.swin.war.framework.util.modules.WorldUtility;
 import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 
 import java.util.HashMap;
@@ -33,6 +39,11 @@ public abstract class WarManager {
     private final ItemUtility itemutil; // An instance of the item utility.
     private final StringUtility strutil; // An instance of the string utility.
     private final WorldUtility wrldutil; // An instance of the world utility.
+    private final VisibilityUtility visutil; // An instance of the visibility utility.
+    private final ListenerUtility lstnutil; // An instance of the listener utility.
+    private final BroadcastUtility bcstutil; // An instance of the broadcast utility.
+    private final MessageUtility msgutil; // An instance of the message utility.
+    private final WarningThrottle throttle; // An instance of the warning throttle.
 
     public final Random rng; // A random number generator.
 
@@ -52,6 +63,11 @@ public abstract class WarManager {
         this.itemutil = new ItemUtility(this);
         this.strutil = new StringUtility(this);
         this.wrldutil = new WorldUtility(this);
+        this.visutil = new VisibilityUtility(this);
+        this.lstnutil = new ListenerUtility(this);
+        this.bcstutil = new BroadcastUtility(this);
+        this.msgutil = new MessageUtility(this);
+        this.throttle = new WarningThrottle(this);
         this.rng = new Random();
     }
 
@@ -98,6 +114,61 @@ public abstract class WarManager {
         return wrldutil;
     }
 
+    /**
+     * Returns an instance of VisibilityUtility so that
+     * maps, gamemodes, etc. can batch changes to who
+     * can see who.
+     *
+     * @return A running instance of the visibility utility.
+     */
+    public VisibilityUtility visibility() {
+        return visutil;
+    }
+
+    /**
+     * Returns an instance of ListenerUtility so that
+     * maps and gamemodes only listen to events in
+     * the round's world.
+     *
+     * @return A running instance of the listener utility.
+     */
+    public ListenerUtility listeners() {
+        return lstnutil;
+    }
+
+    /**
+     * Returns an instance of BroadcastUtility so that
+     * maps, gamemodes, etc. can send a message to many
+     * players without building it for each of them.
+     *
+     * @return A running instance of the broadcast utility.
+     */
+    public BroadcastUtility broadcasts() {
+        return bcstutil;
+    }
+
+    /**
+     * Returns an instance of MessageUtility so that
+     * maps, gamemodes, etc. can retrieve predefined
+     * messages in each player's language.
+     *
+     * @return A running instance of the message utility.
+     */
+    public MessageUtility messages() {
+        return msgutil;
+    }
+
+    /**
+     * Returns an instance of WarningThrottle so that
+     * maps, gamemodes, etc. don't flood players with
+     * the same warning.
+     *
+     * @return A running instance of the warning throttle.
+     */
+    public WarningThrottle warnings() {
+        return throttle;
+    }
+
     /**
      * Returns a running instance of the match manager.
      * This cannot be held in the framework, so you will
@@ -160,6 +231,24 @@ public abstract class WarManager {
      */
     public abstract void warn(Player whoWasWarned, String warning);
 
+    /**
+     * Warns a player with a predefined message, unless they were
+     * sent the same one within the cooldown. If any were held
+     * back since it was last sent, the number of times it
+     * happened is added, i.e. "You may not build here! x5"
+     * <p>
+     * The message is only retrieved if it will be sent.
+     *
+     * @param whoWasWarned Who was warned.
+     * @param key          The warning's message key.
+     */
+    public void warnThrottled(Player whoWasWarned, String key) {
+        int held = throttle.attempt(whoWasWarned, key);
+        if (held < 0) return; // They were just warned about this.
+        String warning = _(whoWasWarned, key);
+        warn(whoWasWarned, held == 0 ? warning : warning + ChatColor.GRAY + " x" + (held + 1));
+    }
+
     /**
      * Removes the instance of a WarPlayer.
      * This should always be called on the
@@ -169,6 +258,10 @@ public abstract class WarManager {
      */
     public void destroyWarPlayer(UUID target) {
         warPlayers.remove(target);
+        visutil.forget(target);
+        throttle.forget(target);
+        if (match().getCurrentMode() != null)
+            match().getCurrentMode().sidebar().forget(target); // Their client forgets the sidebar too.
     }
 
     /**
@@ -202,16 +295,53 @@ public abstract class WarManager {
      * @param comp Message to send.
      */
     public void broadcastSpigotMessage(TextComponent comp) {
-        for (WarPlayer online : getWarPlayers().values())
-            online.getPlayer().spigot().sendMessage(comp);
+        bcstutil.broadcast(null, comp);
+    }
+
+    /**
+     * Retrieves a predefined message from the configuration,
+     * replacing values in it as it goes. By default messages
+     * come from the message utility, in the default language.
+     * This may be overridden to retrieve them some other way.
+     *
+     * @param key          Message key.
+     * @param replacements Replacement phrases. (converted to strings)
+     * @return The message.
+     * @see MessageUtility
+     */
+    public String _(String key, Object... replacements) {
+        return msgutil.get(key, replacements);
     }
 
     /**
-     * A method that should be implemented to retrieve predefined
-     * messages from a configuration, replacing values in them as
-     * it goes.
-     * @param key Message key.
+     * Retrieves a predefined message in a player's language.
+     * Messages without replacements are only built once, so
+     * this is cheap enough to call every time a player is
+     * denied something. Messages that the message utility
+     * doesn't have are retrieved through _(key) instead.
+     *
+     * @param target Who the message is for.
+     * @param key    Message key.
+     * @return The message.
+     */
+    public String _(Player target, String key) {
+        String message = msgutil.get(target, key);
+        return message == null ? _(key) : message;
+    }
+
+    /**
+     * Retrieves a predefined message in a player's language,
+     * replacing values in it as it goes. Messages that the
+     * message utility doesn't have are retrieved through
+     * _(key, replacements) instead.
+     *
+     * @param target       Who the message is for.
+     * @param key          Message key.
      * @param replacements Replacement phrases. (converted to strings)
+     * @return The message.
      */
-    public abstract String _(String key, Object... replacements);
+    public String _(Player target, String key, Object... replacements) {
+        String message = msgutil.get(target, key, replacements);
+        return message == null ? _(key, replacements) : message;
+    }
 }
@@ -2,6 +2,7 @@ package au.edu.swin.war.framework.util;
 
 import au.edu.swin.war.framework.WarPlayer;
 import au.edu.swin.war.framework.game.WarMode;
+import au.edu.swin.war.framework.stored.RoundContext;
 import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.entity.Entity;
@@ -37,6 +38,9 @@ public abstract class WarMatch extends WarModule {
     private String currentMap; // Holds the current map being played, if any.
     private long roundID; // A unique, random 5-digit number for the Minecraft world name.
     private List<String> rotationList; // Holds a list of map names that are on the rotation.
+    private RoundContext round; // Holds the last known record of the current round.
+    private final MatchTimer timer; // Schedules things to happen during the match.
+    private final MatchClock clock; // Keeps track of how long the match has been running.
 
     /**
      * Constructor of the War Match manager.
@@ -50,6 +54,8 @@ public abstract class WarMatch extends WarModule {
         cyclePrevMap = "None";
         currentMap = "None";
         currentMap = null;
+        timer = new MatchTimer(main);
+        clock = new MatchClock(timer);
 
         //Set up rotation list.
         try (Stream<String> stream = Files.lines(Paths.get(main().plugin().getDataFolder() + File.separator + "rotation"))) {
@@ -127,7 +133,56 @@ public abstract class WarMatch extends WarModule {
         if (status == Status.NONE) {
             main().plugin().log("A null world may have been returned!");
             return null;
-        } else return Bukkit.getWorld(getRoundID());
+        }
+        RoundContext round = getRound();
+        if (round != null) return round.getWorld(); // Already looked up when the world was loaded.
+        return Bukkit.getWorld(getRoundID());
+    }
+
+    /**
+     * Returns the record of the current round, which holds
+     * its world, round ID, map and gamemode.
+     *
+     * @return The current round, or null if its world isn't loaded.
+     */
+    public RoundContext getRound() {
+        if (round == null || !round.isValid() || round.getRoundID() != roundID)
+            round = main().world().getRound(roundID); // The round has changed since it was last looked up.
+        return round != null && round.isValid() ? round : null;
+    }
+
+    /**
+     * Returns whether or not a world is the current round's
+     * world. This only compares references, so it is cheap
+     * enough to use in any listener.
+     *
+     * @param world The world to check.
+     * @return Whether it is the match world.
+     */
+    public boolean isMatchWorld(World world) {
+        RoundContext round = getRound();
+        return round != null && round.isWorld(world);
+    }
+
+    /**
+     * Returns the timer that schedules things during
+     * the match. Anything scheduled on it is cancelled
+     * once the gamemode is deactivated.
+     *
+     * @return The match timer.
+     */
+    public MatchTimer timer() {
+        return timer;
+    }
+
+    /**
+     * Returns the clock of the match, which can be read
+     * in server ticks or real time.
+     *
+     * @return The match clock.
+     */
+    public MatchClock clock() {
+        return clock;
     }
 
     /**
@@ -197,6 +252,8 @@ public abstract class WarMatch extends WarModule {
      */
     protected void setCurrentMode(WarMode currentMode) {
         this.currentMode = currentMode;
+        RoundContext round = getRound();
+        if (round != null) round.setMode(currentMode);
     }
 
     /**
@@ -215,6 +272,70 @@ public abstract class WarMatch extends WarModule {
      */
     protected void setStatus(Status status) {
         this.status = status;
+        if (status == Status.STARTING)
+            // Load the chunks around the spawns before everyone is sent there.
+            main().world().preloadSpawns(main().cache().getCurrentMap(), getCurrentWorld());
+        else if (status == Status.PLAYING)
+            stageNextMap(); // While the match is playing, get the next map ready in the background.
+        else if (status == Status.CYCLE)
+            main().world().handOff(getNextMap()); // Keep the next map's pooled world for the next round.
+    }
+
+    /**
+     * Returns the name of the map that will be played after
+     * the current one, according to the rotation. Override
+     * this if your program picks the next map differently.
+     *
+     * @return The next map's name, if any.
+     */
+    protected String getNextMap() {
+        if (rotationList == null || rotationList.isEmpty()) return null;
+        return rotationList.get((rotationPoint + 1) % rotationList.size());
+    }
+
+    /**
+     * Returns the next few maps that will be played
+     * after the current one, according to the rotation.
+     * The same map is never listed twice.
+     *
+     * @param count The amount of maps to look ahead.
+     * @return The upcoming maps' names.
+     */
+    public List<String> getUpcomingMaps(int count) {
+        List<String> upcoming = new ArrayList<>();
+        if (rotationList == null) return upcoming;
+        for (int i = 1; i <= rotationList.size() && upcoming.size() < count; i++) {
+            String map = rotationList.get((rotationPoint + i) % rotationList.size());
+            if (!upcoming.contains(map)) upcoming.add(map);
+        }
+        return upcoming;
+    }
+
+    /**
+     * Assigns a round ID for a map and loads its world.
+     * If the map was staged or pooled ahead of time, its
+     * ID is reused so the world is ready almost instantly.
+     * <p>
+     * This should be used in preMatch() to load the map.
+     *
+     * @param map The name of the map to load.
+     */
+    protected void loadRoundWorld(String map) {
+        setRoundID(main().world().nextRoundID(map));
+        main().world().loadMap(map, roundID);
+    }
+
+    /**
+     * Looks ahead in the rotation and copies the next map
+     * into its round folder on a background thread.
+     * <p>
+     * When cycling, use WorldUtility's nextRoundID() to get
+     * the ID to load it as, so the copy isn't done again.
+     */
+    protected void stageNextMap() {
+        String next = getNextMap();
+        if (next != null && main().world().getStaged(next) == null)
+            main().world().stageMap(next, main().strings().generateID());
     }
 
     /**
@@ -247,6 +368,7 @@ public abstract class WarMatch extends WarModule {
      * This should:
      * Copy the physical map data over for temporary usage.
      * Assign a random 5-digit temporary ID for the world.
+     * (loadRoundWorld() does both, using pooled worlds if any)
      * Load the map and teleport all players into it.
      * Unload the previous map and discard any unneeded data.
      * Start a countdown, then call matchStart();
@@ -0,0 +1,100 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.WarPlayer;
+import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.WarModule;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.api.chat.TextComponent;
+import net.minecraft.server.v1_12_R1.ChatMessageType;
+import net.minecraft.server.v1_12_R1.PacketPlayOutChat;
+import net.minecraft.server.v1_12_R1.PlayerConnection;
+import org.bukkit.craftbukkit.v1_12_R1.entity.CraftPlayer;
+import org.bukkit.entity.Player;
+
+import java.util.function.Predicate;
+
+/**
+ * This class sends the same chat message to many players.
+ * <p>
+ * Sending a message with Bukkit.broadcastMessage() or
+ * spigot().sendMessage() converts it and builds a new chat
+ * packet separately for every player. Here the message is
+ * converted and the packet is built once, and that packet
+ * is sent to every player. It is still sent through each
+ * player's connection, so chat settings, other plugins and
+ * protocol translators all see it as a normal chat packet.
+ * <p>
+ * Recipients can be filtered, i.e.
+ * main.broadcasts().broadcast(WarPlayer::isPlaying, message);
+ * main.broadcasts().broadcast(wp -> wp.getCurrentTeam() == team, message);
+ *
+ * @version 1.0
+ * @see WarManager#broadcastSpigotMessage(TextComponent)
+ * @since 1.1
+ */
+public class BroadcastUtility extends WarModule {
+
+    /**
+     * Broadcast utility constructor.
+     * We need to link back to the manager and plugin.
+     *
+     * @param main The supercontroller.
+     */
+    public BroadcastUtility(WarManager main) {
+        super(main);
+    }
+
+    /**
+     * Sends a message to every player that matches a filter,
+     * and to the console. Colour codes in the message are kept.
+     *
+     * @param filter  Who to send it to, or null for everyone online.
+     * @param message The message.
+     * @return The number of players it was sent to.
+     */
+    public int broadcast(Predicate<WarPlayer> filter, String message) {
+        main().plugin().getServer().getConsoleSender().sendMessage(message);
+        return broadcast(filter, TextComponent.fromLegacyText(message));
+    }
+
+    /**
+     * Sends a message to every player that matches a filter.
+     * Without a filter, every online player receives it, as
+     * they would with Bukkit.broadcastMessage(). With one, only
+     * players that the framework is keeping track of do.
+     *
+     * @param filter  Who to send it to, or null for everyone online.
+     * @param message The message.
+     * @return The number of players it was sent to.
+     */
+    public int broadcast(Predicate<WarPlayer> filter, BaseComponent... message) {
+        PacketPlayOutChat packet = packet(message);
+        int sent = 0;
+        for (Player player : main().plugin().getServer().getOnlinePlayers()) {
+            if (filter != null) {
+                WarPlayer wp = main().getWarPlayers().get(player.getUniqueId());
+                if (wp == null || !filter.test(wp)) continue;
+            }
+            PlayerConnection connection = ((CraftPlayer) player).getHandle().playerConnection;
+            if (connection == null) continue; // They are still logging in.
+            connection.sendPacket(packet);
+            sent++;
+        }
+        return sent;
+    }
+
+    /**
+     * Builds the chat packet for a message. Packets are
+     * only read when they are written, so one packet can
+     * be sent to any number of players.
+     *
+     * @param message The message.
+     * @return The packet.
+     */
+    static PacketPlayOutChat packet(BaseComponent... message) {
+        // A system message, like Bukkit.broadcastMessage() sends, so chat visibility settings treat it the same.
+        PacketPlayOutChat packet = new PacketPlayOutChat(null, ChatMessageType.SYSTEM);
+        packet.components = message;
+        return packet;
+    }
+}
@@ -0,0 +1,151 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.game.WarMap;
+import au.edu.swin.war.framework.game.WarTeam;
+import au.edu.swin.war.framework.stored.SerializedLocation;
+import au.edu.swin.war.framework.util.WarManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This class loads the chunks around every spawn of a map
+ * while the match is starting, a few at a time every tick,
+ * so that teleporting everyone in at once doesn't make the
+ * server load them all in the same tick.
+ * <p>
+ * Loaded chunks are pinned, which stops the server from
+ * unloading them again before the match has even started.
+ *
+ * @version 1.0
+ * @see WorldUtility
+ * @since 1.1
+ */
+class ChunkPreloader implements Listener {
+
+    private final WarManager main; // The supercontroller.
+    private final int radius; // How many chunks around each spawn are loaded.
+    private final long budget; // How long, in nanoseconds, preloading may spend per tick.
+    private final Set<Long> pending; // Chunks waiting to be loaded, in order.
+    private final Set<Long> pinned; // Chunks that are loaded and must stay loaded.
+    private World world; // The world being preloaded.
+    private BukkitTask task; // The task loading the chunks.
+
+    /**
+     * Chunk preloader constructor.
+     *
+     * @param main   The supercontroller.
+     * @param radius The chunk radius around each spawn.
+     * @param budget The time, in milliseconds, that may be spent per tick.
+     */
+    ChunkPreloader(WarManager main, int radius, long budget) {
+        this.main = main;
+        this.radius = radius;
+        this.budget = budget * 1000000L;
+        this.pending = new LinkedHashSet<>();
+        this.pinned = new HashSet<>();
+    }
+
+    /**
+     * Queues the chunks around every team spawn and the
+     * spectator spawn of a map to be loaded and pinned.
+     *
+     * @param map   The map being played.
+     * @param world The world the map is loaded as.
+     */
+    void preload(WarMap map, World world) {
+        release(); // Forget about any previous map.
+        this.world = world;
+
+        for (WarTeam team : map.getTeams()) {
+            List<SerializedLocation> spawns = map.getTeamSpawns(team.getTeamName());
+            if (spawns == null) continue;
+            for (SerializedLocation spawn : spawns)
+                queueAround((int) Math.floor(spawn.x()) >> 4, (int) Math.floor(spawn.z()) >> 4);
+        }
+        Location spectators = map.getSpectatorSpawn();
+        if (spectators != null)
+            queueAround(spectators.getBlockX() >> 4, spectators.getBlockZ() >> 4);
+
+        main.plugin().log("Preloading " + pending.size() + " spawn chunks of " + map.getMapName() + ".");
+        task = Bukkit.getScheduler().runTaskTimer(main.plugin(), this::loadSome, 1L, 1L);
+    }
+
+    /**
+     * Queues every chunk within the radius of a chunk.
+     *
+     * @param cx Chunk X.
+     * @param cz Chunk Z.
+     */
+    private void queueAround(int cx, int cz) {
+        for (int x = cx - radius; x <= cx + radius; x++)
+            for (int z = cz - radius; z <= cz + radius; z++) {
+                Long key = key(x, z);
+                if (!pinned.contains(key)) pending.add(key);
+            }
+    }
+
+    /**
+     * Loads queued chunks until the per-tick budget is used up.
+     * At least one chunk is loaded every tick.
+     */
+    private void loadSome() {
+        long deadline = System.nanoTime() + budget;
+        Iterator<Long> queued = pending.iterator();
+        while (queued.hasNext()) {
+            long key = queued.next();
+            queued.remove();
+            world.loadChunk((int) (key >> 32), (int) key);
+            pinned.add(key);
+            if (System.nanoTime() >= deadline) return; // Out of time, continue next tick.
+        }
+        task.cancel(); // Everything is loaded.
+        task = null;
+    }
+
+    /**
+     * Stops preloading, and lets the server
+     * unload the pinned chunks again.
+     */
+    void release() {
+        if (task != null) task.cancel();
+        task = null;
+        pending.clear();
+        pinned.clear();
+        world = null;
+    }
+
+    /**
+     * Stops the server from unloading pinned chunks.
+     *
+     * @param event An event called by the server.
+     */
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+        if (event.getWorld() == world && !pinned.isEmpty()
+                && pinned.contains(key(event.getChunk().getX(), event.getChunk().getZ())))
+            event.setCancelled(true);
+    }
+
+    /**
+     * Packs chunk coordinates into one number.
+     *
+     * @param cx Chunk X.
+     * @param cz Chunk Z.
+     * @return The chunk key.
+     */
+    private static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,155 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.util.WarManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class deletes old round folders on a background
+ * thread, so the main thread only has to unload the world.
+ * <p>
+ * Deleting a whole map at once can saturate the disk that
+ * the server is also using, so deletion is throttled to a
+ * configurable number of bytes per second.
+ *
+ * @version 1.0
+ * @see WorldUtility
+ * @since 1.1
+ */
+class DeletionQueue {
+
+    private static final long MIN_FILE_COST = 4096; // Deleting any file costs at least this many bytes of I/O.
+
+    private final WarManager main; // The supercontroller, for logging.
+    private final BlockingQueue<File> queue; // Folders waiting to be deleted.
+    private final AtomicInteger depth; // Folders waiting or being deleted.
+    private final long rate; // Maximum bytes deleted per second, or 0 if unlimited.
+    private final Thread worker; // The thread doing the deleting.
+    private long windowStart; // When the current one second window started.
+    private long windowBytes; // Bytes deleted in the current one second window.
+
+    /**
+     * Deletion queue constructor.
+     * Starts the background thread straight away.
+     *
+     * @param main The supercontroller.
+     * @param rate The maximum bytes deleted per second, or 0 if unlimited.
+     */
+    DeletionQueue(WarManager main, long rate) {
+        this.main = main;
+        this.queue = new LinkedBlockingQueue<>();
+        this.depth = new AtomicInteger();
+        this.rate = rate;
+        this.worker = WorldUtility.daemon("War Map Deleter").newThread(this::run);
+        this.worker.start();
+    }
+
+    /**
+     * Queues a folder to be deleted.
+     *
+     * @param folder The folder to delete.
+     */
+    void enqueue(File folder) {
+        depth.incrementAndGet();
+        queue.add(folder);
+    }
+
+    /**
+     * Returns how many folders are waiting
+     * to be deleted, including the current one.
+     *
+     * @return The queue depth.
+     */
+    int depth() {
+        return depth.get();
+    }
+
+    /**
+     * Deletes folders as they are queued, until interrupted.
+     */
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                File folder = queue.take();
+                try {
+                    delete(folder.toPath());
+                } catch (IOException e) {
+                    main.plugin().log("Could not delete " + folder + "!");
+                    e.printStackTrace();
+                } finally {
+                    depth.decrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            // We are shutting down, anything left is swept up next time.
+        }
+    }
+
+    /**
+     * Deletes a folder and everything inside it,
+     * pausing whenever the rate limit is reached.
+     *
+     * @param folder The folder to delete.
+     * @throws IOException Thrown if an error occurs while trying to delete.
+     */
+    private void delete(Path folder) throws IOException {
+        if (!Files.exists(folder)) return;
+        Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                throttle(Math.max(MIN_FILE_COST, attrs.size()));
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                if (e != null) throw e;
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Counts bytes against the rate limit, sleeping
+     * until the next window if the limit has been reached.
+     *
+     * @param bytes The bytes about to be deleted.
+     * @throws IOException Thrown if the thread is interrupted while waiting.
+     */
+    private void throttle(long bytes) throws IOException {
+        if (rate <= 0) return;
+        long now = System.nanoTime();
+        if (now - windowStart >= 1000000000L) {
+            windowStart = now;
+            windowBytes = 0;
+        }
+        windowBytes += bytes;
+        if (windowBytes < rate) return;
+        try {
+            Thread.sleep(Math.max(1, (1000000000L - (now - windowStart)) / 1000000L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Deletion was interrupted", e);
+        }
+        windowStart = System.nanoTime();
+        windowBytes = 0;
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    void shutdown() {
+        worker.interrupt();
+    }
+}
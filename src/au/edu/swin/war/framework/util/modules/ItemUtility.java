@@ -4,10 +4,12 @@ import au.edu.swin.war.framework.WarPlayer;
 import au.edu.swin.war.framework.game.WarTeam;
 import au.edu.swin.war.framework.util.WarManager;
 import au.edu.swin.war.framework.util.WarModule;
+import net.minecraft.server.v1_12_R1.NBTTagCompound;
 import org.apache.commons.lang.WordUtils;
 import org.bukkit.ChatColor;
 import org.bukkit.Color;
 import org.bukkit.Material;
+import org.bukkit.craftbukkit.v1_12_R1.inventory.CraftItemStack;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
@@ -18,6 +20,9 @@ import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
 import java.util.ArrayList;
 
 /**
@@ -34,6 +39,9 @@ import java.util.ArrayList;
 @SuppressWarnings("unused")
 public class ItemUtility extends WarModule {
 
+    public static final String KIT_TAG = "WarKit"; // The NBT tag marking an item as part of a kit.
+    private static final MethodHandle HANDLE = findHandle(); // Reads the Minecraft item behind a CraftItemStack.
+
     public ItemUtility(WarManager main) {
         super(main);
     }
@@ -63,12 +71,24 @@ public class ItemUtility extends WarModule {
      * @see Player
      */
     public void clear(WarPlayer wp) {
+        reset(wp);
+        wp.getPlayer().getInventory().clear(); // Clear the target's inventory.
+        wp.getPlayer().getInventory().setArmorContents(new ItemStack[4]); // Removes the target's armor.
+    }
+
+    /**
+     * Resets a player's state, but not their inventory.
+     * Use this when their whole inventory is about
+     * to be replaced anyway, i.e. by a kit.
+     *
+     * @param wp The target to reset.
+     * @see Player
+     */
+    public void reset(WarPlayer wp) {
         Player target = wp.getPlayer();
         target.closeInventory(); // Closes their inventory so it can be properly modified.
         for (PotionEffect pe : target.getActivePotionEffects())
             target.removePotionEffect(pe.getType()); // Remove all active potion effects.
-        target.getInventory().clear(); // Clear the target's inventory.
-        target.getInventory().setArmorContents(new ItemStack[4]); // Removes the target's armor.
         target.setExp(0); // Resets XP gained.
         target.setLevel(0); // Resets XP level.
         target.setHealth(20); // Sets health back to 10 hearts. (1 = 1/2 a heart)
@@ -130,6 +150,64 @@ public class ItemUtility extends WarModule {
         // For statement documentation, check the above function.
     }
 
+    /**
+     * Returns a copy of an item with an NBT tag added.
+     * Tags are invisible to players, but survive the item
+     * being moved, dropped or picked up again.
+     *
+     * @param item The item to tag.
+     * @param key  The tag to add.
+     * @return The tagged copy.
+     */
+    public static ItemStack tag(ItemStack item, String key) {
+        net.minecraft.server.v1_12_R1.ItemStack nms = CraftItemStack.asNMSCopy(item);
+        NBTTagCompound tag = nms.hasTag() ? nms.getTag() : new NBTTagCompound();
+        tag.setBoolean(key, true);
+        nms.setTag(tag);
+        return CraftItemStack.asCraftMirror(nms);
+    }
+
+    /**
+     * Returns whether or not an item has an NBT tag.
+     * <p>
+     * Items from the server, such as the drops of a dead player,
+     * are read directly. getItemMeta() would copy the whole item
+     * every time it is called.
+     *
+     * @param item The item to check.
+     * @param key  The tag to look for.
+     * @return Whether the item has the tag.
+     */
+    public static boolean hasTag(ItemStack item, String key) {
+        if (item == null) return false;
+        net.minecraft.server.v1_12_R1.ItemStack nms;
+        if (item instanceof CraftItemStack && HANDLE != null) {
+            try {
+                nms = (net.minecraft.server.v1_12_R1.ItemStack) HANDLE.invoke((CraftItemStack) item);
+            } catch (Throwable e) {
+                return false;
+            }
+        } else nms = CraftItemStack.asNMSCopy(item); // A plain Bukkit item has to be converted first.
+        return nms != null && nms.hasTag() && nms.getTag().hasKey(key);
+    }
+
+    /**
+     * Finds the field that holds the Minecraft
+     * item behind a CraftItemStack.
+     *
+     * @return A getter for the field, or null if it couldn't be found.
+     */
+    private static MethodHandle findHandle() {
+        try {
+            Field handle = CraftItemStack.class.getDeclaredField("handle");
+            handle.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(handle);
+        } catch (ReflectiveOperationException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * Colors an item depending on the user's current team.
      * Ignores non-leather armor.
@@ -139,7 +217,7 @@ public class ItemUtility extends WarModule {
      * @return The colored armor.
      * <p>
      */
-    private ItemStack colorArmor(ItemStack armor, WarTeam currentTeam) {
+    public ItemStack colorArmor(ItemStack armor, WarTeam currentTeam) {
         if (armor.getType().toString().startsWith("LEATHER_")) {
             LeatherArmorMeta meta = (LeatherArmorMeta) armor.getItemMeta(); // Gets the leather armor's specific meta.
             meta.setColor(convertChatToDye(currentTeam.getTeamColor())); // Sets the color of the leather armor.
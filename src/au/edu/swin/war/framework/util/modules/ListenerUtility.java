@@ -0,0 +1,180 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.WarModule;
+import org.bukkit.World;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockEvent;
+import org.bukkit.event.entity.EntityEvent;
+import org.bukkit.event.hanging.HangingEvent;
+import org.bukkit.event.player.PlayerEvent;
+import org.bukkit.event.player.PlayerInteractEntityEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.vehicle.VehicleEvent;
+import org.bukkit.event.weather.WeatherEvent;
+import org.bukkit.event.world.WorldEvent;
+import org.bukkit.plugin.EventExecutor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * This class registers the listeners of the map and
+ * gamemode being played, so that they only hear about
+ * what happens in the round's world.
+ * <p>
+ * Once registered, a Spigot listener hears about every
+ * world on the server, including the lobby and any maps
+ * being staged. Events that happen somewhere in particular,
+ * such as blocks being placed or entities being damaged,
+ * are dropped here if they are not in the round's world,
+ * before the handler is ever called. Other events, such
+ * as players joining, are always passed on.
+ * <p>
+ * Like Spigot, handlers don't have to be public. Every
+ * method with @EventHandler declared by the listener's
+ * class, or the classes it extends, is registered.
+ *
+ * @version 1.0
+ * @see org.bukkit.plugin.PluginManager#registerEvent
+ * @since 1.1
+ */
+public class ListenerUtility extends WarModule {
+
+    private final Set<Listener> registered; // Listeners registered through this utility.
+
+    /**
+     * Listener utility constructor.
+     * We need to link back to the manager and plugin.
+     *
+     * @param main The supercontroller.
+     */
+    public ListenerUtility(WarManager main) {
+        super(main);
+        registered = new HashSet<>();
+    }
+
+    /**
+     * Registers a listener for the current round. Any existing
+     * registration of the listener is replaced, so it is not
+     * called twice.
+     *
+     * @param listener The listener to register.
+     */
+    public void register(Listener listener) {
+        HandlerList.unregisterAll(listener);
+        for (Method method : handlers(listener.getClass())) {
+            EventHandler handler = method.getAnnotation(EventHandler.class);
+            Class<? extends Event> type = method.getParameterTypes()[0].asSubclass(Event.class);
+            MethodHandle call;
+            try {
+                method.setAccessible(true); // Handlers may be private, as they can be with Spigot.
+                call = MethodHandles.lookup().unreflect(method).bindTo(listener);
+            } catch (IllegalAccessException | RuntimeException e) {
+                main().plugin().log("Could not register " + method + "!");
+                e.printStackTrace();
+                continue;
+            }
+            main().plugin().getServer().getPluginManager().registerEvent(type, listener, handler.priority(),
+                    executor(type, call), main().plugin(), handler.ignoreCancelled());
+        }
+        registered.add(listener);
+    }
+
+    /**
+     * Finds every event handler of a listener class, whatever
+     * its access. The classes it extends are searched too, but
+     * a handler that is overridden is only found once.
+     *
+     * @param type The listener's class.
+     * @return The event handlers.
+     */
+    private static List<Method> handlers(Class<?> type) {
+        List<Method> found = new ArrayList<>();
+        Set<String> overridden = new HashSet<>(); // Handlers already found in a subclass.
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass())
+            for (Method method : current.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(EventHandler.class) || method.isBridge() || method.isSynthetic()
+                        || method.getParameterCount() != 1 || !Event.class.isAssignableFrom(method.getParameterTypes()[0]))
+                    continue;
+                if (!Modifier.isPrivate(method.getModifiers())
+                        && !overridden.add(method.getName() + method.getParameterTypes()[0].getName()))
+                    continue; // A subclass overrides it, and calling either would call the override.
+                found.add(method);
+            }
+        return found;
+    }
+
+    /**
+     * Unregisters a listener, so it no longer
+     * hears about anything at all.
+     *
+     * @param listener The listener to unregister.
+     */
+    public void unregister(Listener listener) {
+        HandlerList.unregisterAll(listener);
+        registered.remove(listener);
+    }
+
+    /**
+     * Creates the executor for one handler. How to find
+     * the world of the event is worked out here, once,
+     * rather than every time the event is called. The
+     * round's world is looked up when the event happens,
+     * so it is right even if the round changes.
+     *
+     * @param type The event the handler listens to.
+     * @param call The handler, bound to its listener.
+     * @return The executor.
+     */
+    private EventExecutor executor(Class<? extends Event> type, MethodHandle call) {
+        Function<Event, World> locator = locator(type);
+        return (listener, event) -> {
+            if (!type.isInstance(event)) return; // A subclass with its own handler list.
+            if (locator != null && !main().match().isMatchWorld(locator.apply(event))) return; // Not in the round's world.
+            try {
+                call.invoke(event);
+            } catch (Throwable e) {
+                throw new EventException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns how to find the world that an event happened in.
+     *
+     * @param type The event.
+     * @return How to find its world, or null if it doesn't happen in a particular world.
+     */
+    private static Function<Event, World> locator(Class<? extends Event> type) {
+        if (BlockEvent.class.isAssignableFrom(type))
+            return event -> ((BlockEvent) event).getBlock().getWorld();
+        if (HangingEvent.class.isAssignableFrom(type))
+            return event -> ((HangingEvent) event).getEntity().getWorld();
+        if (EntityEvent.class.isAssignableFrom(type))
+            return event -> ((EntityEvent) event).getEntity().getWorld();
+        if (VehicleEvent.class.isAssignableFrom(type))
+            return event -> ((VehicleEvent) event).getVehicle().getWorld();
+        if (WorldEvent.class.isAssignableFrom(type))
+            return event -> ((WorldEvent) event).getWorld();
+        if (WeatherEvent.class.isAssignableFrom(type))
+            return event -> ((WeatherEvent) event).getWorld();
+        if (PlayerMoveEvent.class.isAssignableFrom(type))
+            return event -> ((PlayerMoveEvent) event).getTo().getWorld(); // Where they are moving to.
+        if (PlayerInteractEvent.class.isAssignableFrom(type) || PlayerInteractEntityEvent.class.isAssignableFrom(type))
+            return event -> ((PlayerEvent) event).getPlayer().getWorld();
+        return null; // Always passed on.
+    }
+}
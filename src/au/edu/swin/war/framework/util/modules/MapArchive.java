@@ -0,0 +1,293 @@
+package au.edu.swin.war.framework.util.modules;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * This class packs a whole map folder into a single archive
+ * file, and extracts it again. Reading thousands of small
+ * files from a cold disk is slow, but one contiguous file
+ * can be memory-mapped and read in one sweep.
+ * <p>
+ * Layout of an archive:
+ * [magic][version][index offset] [blob] [blob] ... [index]
+ * <p>
+ * The index holds every file's path, where its blob is,
+ * how it is compressed and a CRC32 of its contents. The
+ * index has its own CRC32 too, and every blob is checked
+ * while extracting, so a corrupted archive is detected
+ * before the world is ever loaded.
+ * <p>
+ * To pack a map outside of the server, run:
+ * java -cp War.jar au.edu.swin.war.framework.util.modules.MapArchive [map folder] [archive] [--store]
+ *
+ * @version 1.0
+ * @see WorldUtility
+ * @since 1.1
+ */
+public final class MapArchive {
+
+    public static final String EXTENSION = ".warmap"; // The file extension of map archives.
+    private static final byte[] MAGIC = "WARMAP".getBytes(StandardCharsets.US_ASCII);
+    private static final byte VERSION = 1;
+    private static final int HEADER = MAGIC.length + 1 + 8; // Magic, version and index offset.
+    private static final byte STORED = 0, DEFLATED = 1; // How a blob is compressed.
+
+    /**
+     * This class only has static procedures.
+     */
+    private MapArchive() {
+    }
+
+    /**
+     * Packs a map folder into an archive file.
+     *
+     * @param folder   The map folder to pack.
+     * @param archive  The archive file to create.
+     * @param compress Whether or not to Deflate each file.
+     * @return The number of files packed.
+     * @throws IOException Thrown if an error occurs while trying to pack.
+     */
+    public static int pack(Path folder, Path archive, boolean compress) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        Path temp = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.position(HEADER); // The header is written last, once the index offset is known.
+            Files.walkFileTree(folder, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    if (file.getFileName().toString().equals("session.lock"))
+                        return FileVisitResult.CONTINUE; // The server makes its own.
+                    byte[] data = Files.readAllBytes(file);
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+
+                    byte[] blob = compress ? deflate(data) : data;
+                    byte compression = compress && blob.length < data.length ? DEFLATED : STORED;
+                    if (compression == STORED) blob = data; // Not worth compressing.
+
+                    String path = folder.relativize(file).toString().replace(File.separatorChar, '/');
+                    entries.add(new Entry(path, compression, out.position(), blob.length, data.length, (int) crc.getValue()));
+                    writeFully(out, ByteBuffer.wrap(blob));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+
+            long indexOffset = out.position();
+            ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+            DataOutputStream index = new DataOutputStream(indexBytes);
+            index.writeInt(entries.size());
+            for (Entry entry : entries) {
+                index.writeUTF(entry.path);
+                index.writeByte(entry.compression);
+                index.writeLong(entry.offset);
+                index.writeLong(entry.stored);
+                index.writeLong(entry.length);
+                index.writeInt(entry.crc);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(indexBytes.toByteArray());
+            index.writeInt((int) crc.getValue());
+            writeFully(out, ByteBuffer.wrap(indexBytes.toByteArray()));
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER);
+            header.put(MAGIC).put(VERSION).putLong(indexOffset).flip();
+            out.position(0);
+            writeFully(out, header);
+        }
+        Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return entries.size();
+    }
+
+    /**
+     * Extracts an archive into a folder. The archive is
+     * memory-mapped, and every file is checked against its
+     * checksum as it is extracted.
+     *
+     * @param archive The archive to extract.
+     * @param folder  The folder to extract into.
+     * @return The number of bytes extracted.
+     * @throws IOException Thrown if the archive is corrupted or can't be read.
+     */
+    public static long extract(Path archive, Path folder) throws IOException {
+        long bytes = 0;
+        try (FileChannel in = FileChannel.open(archive, StandardOpenOption.READ)) {
+            List<Entry> entries = readIndex(archive, in);
+            Files.createDirectories(folder);
+            for (Entry entry : entries) {
+                if (Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException("Extraction of " + archive + " was cancelled");
+                Path target = folder.resolve(entry.path).normalize();
+                if (!target.startsWith(folder.normalize()))
+                    throw new IOException(archive + " is corrupted: bad path " + entry.path);
+                Files.createDirectories(target.getParent());
+                Files.deleteIfExists(target); // Never write through a hard link.
+
+                MappedByteBuffer blob = in.map(FileChannel.MapMode.READ_ONLY, entry.offset, entry.stored);
+                ByteBuffer data = entry.compression == DEFLATED ? inflate(archive, blob, entry) : blob;
+                CRC32 crc = new CRC32();
+                crc.update(data.duplicate());
+                if ((int) crc.getValue() != entry.crc)
+                    throw new IOException(archive + " is corrupted: checksum mismatch in " + entry.path);
+
+                try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                    writeFully(out, data);
+                }
+                bytes += entry.length;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads and checks the archive's index.
+     *
+     * @param archive The archive, for error messages.
+     * @param in      The archive's channel.
+     * @return Every entry in the archive.
+     * @throws IOException Thrown if the archive is corrupted or can't be read.
+     */
+    private static List<Entry> readIndex(Path archive, FileChannel in) throws IOException {
+        long size = in.size();
+        if (size < HEADER) throw new IOException(archive + " is corrupted: too small");
+        ByteBuffer header = in.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException(archive + " is not a map archive");
+        if (header.get() != VERSION) throw new IOException(archive + " is from an unsupported version");
+        long indexOffset = header.getLong();
+        if (indexOffset < HEADER || indexOffset > size - 8)
+            throw new IOException(archive + " is corrupted: bad index offset");
+
+        ByteBuffer indexBuffer = in.map(FileChannel.MapMode.READ_ONLY, indexOffset, size - indexOffset);
+        byte[] index = new byte[indexBuffer.remaining() - 4];
+        indexBuffer.get(index);
+        CRC32 crc = new CRC32();
+        crc.update(index);
+        if ((int) crc.getValue() != indexBuffer.getInt())
+            throw new IOException(archive + " is corrupted: index checksum mismatch");
+
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(index));
+        int count = data.readInt();
+        List<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Entry entry = new Entry(data.readUTF(), data.readByte(), data.readLong(), data.readLong(), data.readLong(), data.readInt());
+            if (entry.offset < HEADER || entry.stored < 0 || entry.offset + entry.stored > indexOffset || entry.length > Integer.MAX_VALUE)
+                throw new IOException(archive + " is corrupted: bad entry " + entry.path);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    /**
+     * Compresses a file's contents with Deflate.
+     *
+     * @param data The contents.
+     * @return The compressed contents.
+     */
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+        byte[] buffer = new byte[65536];
+        while (!deflater.finished())
+            out.write(buffer, 0, deflater.deflate(buffer));
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    /**
+     * Decompresses a blob.
+     *
+     * @param archive The archive, for error messages.
+     * @param blob    The compressed blob.
+     * @param entry   The blob's entry.
+     * @return The decompressed contents.
+     * @throws IOException Thrown if the blob is corrupted.
+     */
+    private static ByteBuffer inflate(Path archive, ByteBuffer blob, Entry entry) throws IOException {
+        byte[] input = new byte[blob.remaining()];
+        blob.get(input);
+        byte[] output = new byte[(int) entry.length];
+        Inflater inflater = new Inflater();
+        inflater.setInput(input);
+        try {
+            int length = 0;
+            while (length < output.length && !inflater.finished()) {
+                int read = inflater.inflate(output, length, output.length - length);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += read;
+            }
+            if (length != output.length || !inflater.finished())
+                throw new IOException(archive + " is corrupted: bad length of " + entry.path);
+        } catch (DataFormatException e) {
+            throw new IOException(archive + " is corrupted: " + entry.path, e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    /**
+     * Writes all of a buffer to a channel.
+     *
+     * @param out  The channel to write to.
+     * @param data The buffer to write.
+     * @throws IOException Thrown if an error occurs while trying to write.
+     */
+    private static void writeFully(FileChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining())
+            out.write(data);
+    }
+
+    /**
+     * Packs a map folder from the command line.
+     *
+     * @param args The map folder, the archive, and optionally --store to not compress.
+     * @throws IOException Thrown if an error occurs while trying to pack.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: MapArchive <map folder> <archive" + EXTENSION + "> [--store]");
+            return;
+        }
+        boolean compress = args.length < 3 || !args[2].equals("--store");
+        int files = pack(Paths.get(args[0]), Paths.get(args[1]), compress);
+        System.out.println("Packed " + files + " files into " + args[1] + ".");
+    }
+
+    /**
+     * A record of one file in the archive's index.
+     */
+    private static final class Entry {
+        private final String path; // The file's path, relative to the map folder.
+        private final byte compression; // How the blob is compressed.
+        private final long offset; // Where the blob starts in the archive.
+        private final long stored; // The length of the blob.
+        private final long length; // The length of the file once extracted.
+        private final int crc; // The CRC32 of the file once extracted.
+
+        private Entry(String path, byte compression, long offset, long stored, long length, int crc) {
+            this.path = path;
+            this.compression = compression;
+            this.offset = offset;
+            this.stored = stored;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+}
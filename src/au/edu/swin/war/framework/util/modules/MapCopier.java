@@ -0,0 +1,154 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.util.WarManager;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class copies a map folder using NIO. Folders are
+ * walked once and then every file is copied on a bounded
+ * fork-join pool using FileChannel.transferTo(), which lets
+ * the kernel copy the data without going through the JVM.
+ *
+ * @version 1.0
+ * @see WorldUtility
+ * @since 1.1
+ */
+class MapCopier {
+
+    private final WarManager main; // The supercontroller, for logging.
+    private final ForkJoinPool pool; // The pool that file copies are fanned out over.
+
+    /**
+     * Map copier constructor.
+     *
+     * @param main    The supercontroller.
+     * @param threads The maximum number of files copied at once.
+     */
+    MapCopier(WarManager main, int threads) {
+        this.main = main;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    /**
+     * Copies a folder and everything inside it.
+     * Folders are created as they are walked, and the
+     * files are copied in parallel. This blocks until
+     * every file has been copied.
+     *
+     * @param src  Source directory.
+     * @param dest Destination directory.
+     * @return The number of bytes copied.
+     * @throws IOException Thrown if an error occurs while trying to copy.
+     */
+    long copy(Path src, Path dest) throws IOException {
+        long start = System.nanoTime();
+        long bytes = copyTree(src, dest);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        double mb = bytes / 1048576D;
+        main.plugin().log(String.format("Copied %s (%.1f MB) in %d ms at %.1f MB/s.",
+                src.getFileName(), mb, elapsed / 1000000L, mb / (elapsed / 1000000000D)));
+        return bytes;
+    }
+
+    /**
+     * Walks a folder and copies every file in it on the pool,
+     * without logging anything. This blocks until every file
+     * has been copied.
+     *
+     * @param src  Source directory.
+     * @param dest Destination directory.
+     * @return The number of bytes copied.
+     * @throws IOException Thrown if an error occurs while trying to copy.
+     */
+    long copyTree(Path src, Path dest) throws IOException {
+        AtomicLong bytes = new AtomicLong();
+        List<ForkJoinTask<?>> copies = new ArrayList<>();
+
+        Files.walkFileTree(src, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(dest.resolve(src.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                Path target = dest.resolve(src.relativize(file).toString());
+                copies.add(pool.submit(() -> {
+                    bytes.addAndGet(copyFile(file, target));
+                    return null;
+                }));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        try {
+            for (ForkJoinTask<?> copy : copies)
+                copy.get(); // Wait for every file to be copied.
+        } catch (InterruptedException e) {
+            // The copy was cancelled, so don't bother copying the rest.
+            for (ForkJoinTask<?> copy : copies)
+                copy.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Copy of " + src + " was cancelled");
+        } catch (ExecutionException e) {
+            for (ForkJoinTask<?> copy : copies)
+                copy.cancel(true);
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Could not copy " + src, e.getCause());
+        }
+        return bytes.get();
+    }
+
+    /**
+     * Copies a single file. transferTo() may copy less
+     * than asked for, so it is called until it's all done.
+     * If it copies nothing, the file has shrunk since it was
+     * opened, so the copy stops at its new end rather than
+     * waiting forever for bytes that will never come.
+     * An existing file is removed first, in case it is a hard
+     * link, so the file it is linked to is never written to.
+     *
+     * @param from The file to copy.
+     * @param to   Where to copy it to.
+     * @return The number of bytes copied.
+     * @throws IOException Thrown if an error occurs while trying to copy.
+     */
+    static long copyFile(Path from, Path to) throws IOException {
+        Files.deleteIfExists(to); // Never write through a hard link.
+        try (FileChannel in = FileChannel.open(from, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(to, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size(), position = 0;
+            while (position < size) {
+                long copied = in.transferTo(position, size - position, out);
+                if (copied > 0) {
+                    position += copied;
+                    continue;
+                }
+                size = in.size(); // Nothing was copied, so see if the file got shorter.
+                if (position < size)
+                    throw new IOException("Could not copy " + from + ", stopped at " + position + " of " + size + " bytes");
+            }
+            return position;
+        }
+    }
+
+    /**
+     * Stops the pool. Any copies still running are interrupted.
+     */
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
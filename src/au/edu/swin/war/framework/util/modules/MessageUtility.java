@@ -0,0 +1,333 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.WarModule;
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.entity.Player;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * This class holds every predefined message, in every
+ * language, and fills in their replacements.
+ * <p>
+ * The messages of the default language are in the "messages"
+ * section of the config. Other languages are read from
+ * messages/&lt;locale&gt;.yml in the plugin's folder, i.e.
+ * messages/en_gb.yml. &amp; colour codes may be used, and
+ * replacements are written as {0}, {1}, etc.
+ * <p>
+ * Every message is broken into its text and replacements
+ * once, when it is first used. Messages without replacements
+ * are returned as they are, without building anything. If a
+ * message is missing from a player's language, it is looked
+ * for in the language without its region (en_gb to en), then
+ * the default language. If it isn't anywhere, the key itself
+ * is used, or for a player, nothing is returned so that the
+ * manager can look for it some other way.
+ * <p>
+ * A player's language comes from their client, so it is only
+ * used if it looks like a language, i.e. en or en_gb. Anything
+ * else is treated as the default language.
+ *
+ * @version 1.0
+ * @see WarManager#_(String, Object...)
+ * @since 1.1
+ */
+public class MessageUtility extends WarModule {
+
+    private static final Pattern LOCALE = Pattern.compile("[a-z]{2,3}(_[a-z]{2,3})?"); // What a language looks like.
+    private static final ThreadLocal<StringBuilder> builder = ThreadLocal.withInitial(StringBuilder::new); // Reused to build messages.
+
+    private final Map<String, Map<String, String>> sources; // The raw messages of every language read so far.
+    private final Map<String, Map<String, Template>> resolved; // Every message looked up so far, by language.
+    private String fallback; // The default language.
+
+    /**
+     * Message utility constructor.
+     * We need to link back to the manager and plugin.
+     *
+     * @param main The supercontroller.
+     */
+    public MessageUtility(WarManager main) {
+        super(main);
+        sources = new ConcurrentHashMap<>();
+        resolved = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Forgets every message, so they are read again
+     * from the config and language files when used.
+     */
+    public void reload() {
+        sources.clear();
+        resolved.clear();
+        fallback = null;
+    }
+
+    /**
+     * Returns a message in the default language.
+     *
+     * @param key          The message's key.
+     * @param replacements Replacements for {0}, {1}, etc.
+     * @return The message.
+     */
+    public String get(String key, Object... replacements) {
+        Template template = template(null, key);
+        return template == Template.MISSING ? key : template.render(replacements);
+    }
+
+    /**
+     * Returns a message in the language of a player.
+     *
+     * @param player The player.
+     * @param key    The message's key.
+     * @return The message, or null if it isn't in any language.
+     */
+    public String get(Player player, String key) {
+        Template template = template(player.getLocale(), key);
+        return template == Template.MISSING ? null : template.render(null);
+    }
+
+    /**
+     * Returns a message in the language of a player.
+     *
+     * @param player      The player.
+     * @param key         The message's key.
+     * @param replacement The replacement for {0}.
+     * @return The message, or null if it isn't in any language.
+     */
+    public String get(Player player, String key, Object replacement) {
+        Template template = template(player.getLocale(), key);
+        if (template == Template.MISSING) return null;
+        return template.isStatic() ? template.text() : template.render(replacement, null, 1);
+    }
+
+    /**
+     * Returns a message in the language of a player.
+     *
+     * @param player       The player.
+     * @param key          The message's key.
+     * @param replacements Replacements for {0}, {1}, etc.
+     * @return The message, or null if it isn't in any language.
+     */
+    public String get(Player player, String key, Object... replacements) {
+        Template template = template(player.getLocale(), key);
+        return template == Template.MISSING ? null : template.render(replacements);
+    }
+
+    /**
+     * Finds a message in a language, falling back to
+     * other languages if it isn't there. The result is
+     * remembered, so this is only worked out once.
+     *
+     * @param locale The language, or null for the default.
+     * @param key    The message's key.
+     * @return The message, broken into its parts, or MISSING if it isn't anywhere.
+     */
+    private Template template(String locale, String key) {
+        String language = language(locale);
+        Map<String, Template> messages = resolved.get(language);
+        if (messages == null) {
+            messages = new ConcurrentHashMap<>();
+            resolved.put(language, messages);
+        }
+        Template template = messages.get(key);
+        if (template == null) {
+            String found = lookup(language, key);
+            template = found == null ? Template.MISSING : Template.parse(found);
+            messages.put(key, template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the raw message, going through the fallback
+     * chain of languages until it is found.
+     *
+     * @param language The language.
+     * @param key      The message's key.
+     * @return The raw message, or null if it isn't anywhere.
+     */
+    private String lookup(String language, String key) {
+        String found = source(language).get(key);
+        int region = language.indexOf('_');
+        if (found == null && region != -1) found = source(language.substring(0, region)).get(key);
+        if (found == null) found = source(fallback()).get(key);
+        return found;
+    }
+
+    /**
+     * Returns the language to use for a locale. Locales come
+     * from the player's client, and are used to find language
+     * files, so anything that isn't a language is ignored.
+     *
+     * @param locale The locale, or null for the default.
+     * @return The language.
+     */
+    private String language(String locale) {
+        if (locale == null) return fallback();
+        String language = locale.toLowerCase(Locale.ROOT);
+        return LOCALE.matcher(language).matches() ? language : fallback();
+    }
+
+    /**
+     * Returns the raw messages of a language, reading them
+     * the first time. The default language is read from
+     * the config, and other languages from their own files.
+     *
+     * @param language The language.
+     * @return Every message in the language, by key.
+     */
+    private Map<String, String> source(String language) {
+        Map<String, String> messages = sources.get(language);
+        if (messages != null) return messages;
+        messages = new HashMap<>();
+        if (language.equals(fallback()))
+            read(main().plugin().getConfig().getConfigurationSection("messages"), messages);
+        File file = new File(main().plugin().getDataFolder(), "messages" + File.separator + language + ".yml");
+        if (file.isFile())
+            read(YamlConfiguration.loadConfiguration(file), messages); // Overrides the config, if both exist.
+        sources.put(language, messages);
+        return messages;
+    }
+
+    /**
+     * Reads every message in a section.
+     *
+     * @param section The section, or null if there isn't one.
+     * @param into    Where to put the messages.
+     */
+    private static void read(ConfigurationSection section, Map<String, String> into) {
+        if (section == null) return;
+        for (String key : section.getKeys(true))
+            if (section.isString(key))
+                into.put(key, section.getString(key));
+    }
+
+    /**
+     * Returns the default language.
+     *
+     * @return The default language.
+     */
+    private String fallback() {
+        if (fallback == null)
+            fallback = main().plugin().getConfig().getString("settings.locale", "en_us").toLowerCase(Locale.ROOT);
+        return fallback;
+    }
+
+    /**
+     * A message broken into its text and replacements.
+     */
+    private static final class Template {
+
+        static final Template MISSING = new Template(null, null, null); // A message that isn't in any language.
+
+        private final String text; // The whole message, if it has no replacements.
+        private final String[] parts; // The text before each replacement, and the text after the last.
+        private final int[] slots; // Which replacement goes after each part.
+
+        private Template(String text, String[] parts, int[] slots) {
+            this.text = text;
+            this.parts = parts;
+            this.slots = slots;
+        }
+
+        /**
+         * Breaks a message into its parts.
+         * Colour codes are translated here, once.
+         *
+         * @param raw The raw message.
+         * @return The message's parts.
+         */
+        static Template parse(String raw) {
+            String message = ChatColor.translateAlternateColorCodes('&', raw);
+            List<String> parts = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            int start = 0, from = 0, open;
+            while ((open = message.indexOf('{', from)) != -1) {
+                int close = message.indexOf('}', open);
+                if (close == -1) break;
+                int slot = slot(message, open + 1, close);
+                if (slot == -1) { // Not a replacement, so it is part of the text.
+                    from = open + 1;
+                    continue;
+                }
+                parts.add(message.substring(start, open));
+                slots.add(slot);
+                start = from = close + 1;
+            }
+            if (slots.isEmpty()) return new Template(message, null, null);
+            parts.add(message.substring(start));
+            int[] order = new int[slots.size()];
+            for (int i = 0; i < order.length; i++)
+                order[i] = slots.get(i);
+            return new Template(null, parts.toArray(new String[0]), order);
+        }
+
+        /**
+         * Reads the number between a pair of braces.
+         *
+         * @return The number, or -1 if it isn't one.
+         */
+        private static int slot(String message, int from, int to) {
+            if (from == to || to - from > 2) return -1;
+            int slot = 0;
+            for (int i = from; i < to; i++) {
+                char c = message.charAt(i);
+                if (c < '0' || c > '9') return -1;
+                slot = slot * 10 + (c - '0');
+            }
+            return slot;
+        }
+
+        boolean isStatic() {
+            return text != null;
+        }
+
+        String text() {
+            return text;
+        }
+
+        /**
+         * Fills in the replacements.
+         *
+         * @param replacements The replacements, or null if there are none.
+         * @return The message.
+         */
+        String render(Object[] replacements) {
+            if (text != null) return text; // Nothing to replace.
+            return render(null, replacements, replacements == null ? 0 : replacements.length);
+        }
+
+        /**
+         * Fills in the replacements, from either a single
+         * replacement or an array of them.
+         *
+         * @param single       The only replacement, if there is no array.
+         * @param replacements The replacements, or null.
+         * @param count        How many replacements there are.
+         * @return The message.
+         */
+        String render(Object single, Object[] replacements, int count) {
+            StringBuilder out = builder.get();
+            out.setLength(0);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(parts[i]);
+                int slot = slots[i];
+                if (slot >= count) out.append('{').append(slot).append('}'); // Nothing to replace it with.
+                else out.append(replacements == null ? single : replacements[slot]);
+            }
+            return out.append(parts[slots.length]).toString();
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.potion.PotionEffect;
 import org.bukkit.potion.PotionEffectType;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -128,6 +129,8 @@ public class StringUtility extends WarModule {
 
         if (main().match().getRawRoundID() == generated) return generateID();
         // Though a very small chance, regenerate if it is the same as the previous round.
+        if (main().world().getStaged(generated) != null || new File(generated + "").exists()) return generateID();
+        // Also regenerate if a staged map or an old round folder is already using it.
         return generated;
     }
 
@@ -0,0 +1,172 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.WarPlayer;
+import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.WarModule;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * This class handles who can see who. Players who are
+ * playing cannot see spectators, but everyone else can
+ * see everyone.
+ * <p>
+ * The players who are playing and spectating are tracked,
+ * so when a player's state flips only the visibility between
+ * them and everyone else has to change. Changes can also be
+ * batched so that a player who flips more than once in a
+ * tick (or not at all, in the end) costs nothing extra.
+ *
+ * @version 1.0
+ * @see WarPlayer
+ * @since 1.1
+ */
+public class VisibilityUtility extends WarModule {
+
+    private final Map<UUID, WarPlayer> playing; // Players who are currently shown as playing.
+    private final Map<UUID, WarPlayer> spectating; // Players who are currently shown as spectating.
+    private final Map<UUID, WarPlayer> dirty; // Players whose state changed but hasn't been applied yet.
+    private final boolean deferred; // Whether or not changes are held until the end of the tick.
+    private int batchDepth; // How many batches are currently open.
+    private BukkitTask flushTask; // The task that applies deferred changes.
+
+    /**
+     * Visibility utility constructor.
+     * We need to link back to the manager and plugin.
+     *
+     * @param main The supercontroller.
+     */
+    public VisibilityUtility(WarManager main) {
+        super(main);
+        playing = new LinkedHashMap<>();
+        spectating = new LinkedHashMap<>();
+        dirty = new LinkedHashMap<>();
+        deferred = main.plugin().getConfig().getBoolean("settings.visibility_batching", false);
+    }
+
+    /**
+     * Updates who can see a player, and who the player can
+     * see, based on whether or not they are in the round.
+     * This should be called whenever their team changes.
+     *
+     * @param wp The player whose state may have changed.
+     */
+    public void update(WarPlayer wp) {
+        wp.getPlayer().setCollidable(wp.isPlaying());
+        if (batchDepth == 0 && !deferred) {
+            apply(wp);
+            return;
+        }
+        dirty.put(wp.getPlayer().getUniqueId(), wp);
+        if (batchDepth == 0 && flushTask == null)
+            // Apply everything that changed this tick at once, on the next tick.
+            flushTask = Bukkit.getScheduler().runTask(main().plugin(), this::flush);
+    }
+
+    /**
+     * Starts a batch. Until the batch is ended, changes
+     * are only recorded. Batches can be nested.
+     */
+    public void beginBatch() {
+        batchDepth++;
+    }
+
+    /**
+     * Ends a batch. Once every batch is ended,
+     * all recorded changes are applied in one pass.
+     */
+    public void endBatch() {
+        if (batchDepth > 0 && --batchDepth == 0)
+            flush();
+    }
+
+    /**
+     * Applies every recorded change.
+     */
+    public void flush() {
+        if (flushTask != null) flushTask.cancel();
+        flushTask = null;
+        List<WarPlayer> changed = new ArrayList<>(dirty.values());
+        dirty.clear();
+        for (WarPlayer wp : changed)
+            apply(wp);
+    }
+
+    /**
+     * Stops tracking a player. This must be
+     * called when the player disconnects.
+     *
+     * @param target The player's UUID.
+     */
+    public void forget(UUID target) {
+        playing.remove(target);
+        spectating.remove(target);
+        dirty.remove(target);
+    }
+
+    /**
+     * Applies a player's state, if it has changed since it
+     * was last applied. A player can see someone unless they
+     * are playing and the other person is spectating.
+     *
+     * @param wp The player to apply.
+     */
+    private void apply(WarPlayer wp) {
+        UUID id = wp.getPlayer().getUniqueId();
+        boolean now = wp.isPlaying();
+        boolean wasPlaying = playing.containsKey(id);
+        if (!wasPlaying && !spectating.containsKey(id)) {
+            introduce(wp, now);
+            return;
+        }
+        if (wasPlaying == now) return; // Nothing changed, so nothing to do.
+
+        Player pl = wp.getPlayer();
+        if (now) {
+            spectating.remove(id);
+            for (WarPlayer dp : playing.values())
+                dp.getPlayer().showPlayer(pl); // Other players can now see this player.
+            for (WarPlayer dp : spectating.values())
+                pl.hidePlayer(dp.getPlayer()); // This player can no longer see spectators.
+            playing.put(id, wp);
+        } else {
+            playing.remove(id);
+            for (WarPlayer dp : playing.values())
+                dp.getPlayer().hidePlayer(pl); // Players can no longer see this player.
+            for (WarPlayer dp : spectating.values())
+                pl.showPlayer(dp.getPlayer()); // This player can now see other spectators.
+            spectating.put(id, wp);
+        }
+    }
+
+    /**
+     * Sets up the visibility between a player who isn't
+     * tracked yet and everyone else, in both directions.
+     *
+     * @param wp        The new player.
+     * @param isPlaying Whether or not they are playing.
+     */
+    private void introduce(WarPlayer wp, boolean isPlaying) {
+        Player pl = wp.getPlayer();
+        for (WarPlayer dp : playing.values()) {
+            if (dp == wp) continue;
+            pl.showPlayer(dp.getPlayer()); // Everyone can see those who are playing.
+            if (isPlaying) dp.getPlayer().showPlayer(pl);
+            else dp.getPlayer().hidePlayer(pl);
+        }
+        for (WarPlayer dp : spectating.values()) {
+            if (dp == wp) continue;
+            dp.getPlayer().showPlayer(pl); // Spectators can see everyone.
+            if (isPlaying) pl.hidePlayer(dp.getPlayer());
+            else pl.showPlayer(dp.getPlayer());
+        }
+        (isPlaying ? playing : spectating).put(pl.getUniqueId(), wp);
+    }
+}
@@ -0,0 +1,107 @@
+package au.edu.swin.war.framework.util.modules;
+
+import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.WarModule;
+import org.bukkit.entity.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.UUID;
+
+/**
+ * This class stops players from being sent the same warning
+ * over and over, such as when they hold right click against
+ * a boundary and every block placed is denied.
+ * <p>
+ * Once a player is warned, the same warning is not sent to
+ * them again until a cooldown has passed. Warnings in the
+ * meantime are only counted, so the next one can say how
+ * many times it happened. Each warning key is given a number
+ * the first time it is used, and every player has a slot for
+ * each number, so counting a warning creates nothing.
+ *
+ * @version 1.0
+ * @see WarManager#warnThrottled(Player, String)
+ * @since 1.1
+ */
+public class WarningThrottle extends WarModule {
+
+    private final HashMap<String, Integer> keys; // The number given to each warning key.
+    private final HashMap<UUID, Slots> players; // The slots of each player that has been warned.
+    private final long cooldown; // Milliseconds before the same warning is sent again.
+
+    /**
+     * Warning throttle constructor.
+     * We need to link back to the manager and plugin.
+     *
+     * @param main The supercontroller.
+     */
+    public WarningThrottle(WarManager main) {
+        super(main);
+        keys = new HashMap<>();
+        players = new HashMap<>();
+        cooldown = main.plugin().getConfig().getLong("settings.warn_cooldown", 1500);
+    }
+
+    /**
+     * Records that a player is about to be warned, and
+     * decides whether or not they should see it.
+     *
+     * @param target Who would be warned.
+     * @param key    The warning's message key.
+     * @return -1 if the warning should not be sent, otherwise
+     * how many times it was held back since it was last sent.
+     */
+    public int attempt(Player target, String key) {
+        Integer id = keys.get(key);
+        if (id == null) {
+            id = keys.size();
+            keys.put(key, id);
+        }
+        Slots slots = players.get(target.getUniqueId());
+        if (slots == null) {
+            slots = new Slots(keys.size());
+            players.put(target.getUniqueId(), slots);
+        } else if (id >= slots.until.length) slots.grow(keys.size());
+
+        long now = System.currentTimeMillis();
+        if (now < slots.until[id]) {
+            slots.held[id]++;
+            return -1; // Still cooling down.
+        }
+        int held = slots.held[id];
+        slots.held[id] = 0;
+        slots.until[id] = now + cooldown;
+        return held;
+    }
+
+    /**
+     * Forgets every warning sent to a player. This should
+     * be called when the player leaves the server.
+     *
+     * @param target The player's UUID.
+     */
+    public void forget(UUID target) {
+        players.remove(target);
+    }
+
+    /**
+     * When each warning can next be sent to a player,
+     * and how many were held back, by warning number.
+     */
+    private static final class Slots {
+
+        private long[] until; // When each warning's cooldown ends.
+        private int[] held; // How many of each warning were held back.
+
+        private Slots(int size) {
+            until = new long[size];
+            held = new int[size];
+        }
+
+        private void grow(int size) {
+            until = Arrays.copyOf(until, size);
+            held = Arrays.copyOf(held, size);
+        }
+    }
+}
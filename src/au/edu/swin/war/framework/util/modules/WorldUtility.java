@@ -1,7 +1,12 @@
 package au.edu.swin.war.framework.util.modules;
 
 
+import au.edu.swin.war.framework.game.WarMap;
+import au.edu.swin.war.framework.stored.SerializedLocation;
+import au.edu.swin.war.framework.stored.RoundContext;
+import au.edu.swin.war.framework.stored.StagedMap;
 import au.edu.swin.war.framework.util.WarManager;
+import au.edu.swin.war.framework.util.WarMatch;
 import au.edu.swin.war.framework.util.WarModule;
 import net.minecraft.server.v1_12_R1.WorldServer;
 import org.apache.commons.io.FileUtils;
@@ -11,13 +16,28 @@ import org.bukkit.World;
 import org.bukkit.WorldCreator;
 import org.bukkit.craftbukkit.v1_12_R1.CraftServer;
 import org.bukkit.craftbukkit.v1_12_R1.CraftWorld;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.generator.ChunkGenerator;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.io.*;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * This class handles the moving, removal, and creation of
@@ -34,6 +54,18 @@ import java.util.Random;
 public class WorldUtility extends WarModule {
 
     private String repo; // Holds the directory path to the map repository.
+    private final boolean prestage; // Whether or not upcoming maps are copied ahead of time.
+    private final ExecutorService stager; // The background thread that copies upcoming maps.
+    private final MapCopier copier; // Copies map folders in parallel.
+    private final Map<Long, StagedMap> staged; // Maps that are staged (or being staged), by round ID.
+    private final Map<Long, RoundContext> rounds; // Every round whose world is loaded, by round ID.
+    private final int poolSize; // How many upcoming maps are kept as already-loaded worlds.
+    private final long poolBudget; // How long, in nanoseconds, the pool may spend per tick before starting more work.
+    private StagedMap handedOff; // The staged map set aside for the next round once cycling starts.
+    private BukkitTask poolTask; // The task that replenishes the pool every tick.
+    private final DeletionQueue deleter; // Deletes old round folders in the background.
+    private final int voidMargin; // Chunks kept around a map's build boundary, or -1 if not bounded.
+    private final ChunkPreloader preloader; // Loads the chunks around spawns before a match starts.
 
     /**
      * World utility constructor.
@@ -44,6 +76,278 @@ public class WorldUtility extends WarModule {
     public WorldUtility(WarManager main) {
         super(main);
         repo = main.plugin().getConfig().getString("settings.maps_repo");
+        prestage = main.plugin().getConfig().getBoolean("settings.prestage", true);
+        stager = Executors.newSingleThreadExecutor(daemon("War Map Stager"));
+        copier = new MapCopier(main, main.plugin().getConfig().getInt("settings.copy_threads",
+                Math.min(4, Runtime.getRuntime().availableProcessors())));
+        staged = new LinkedHashMap<>();
+        rounds = new HashMap<>();
+        if (main.plugin().getConfig().isSet("settings.map_instantiation"))
+            main.plugin().log("settings.map_instantiation is no longer used, maps are always copied.");
+        poolSize = main.plugin().getConfig().getInt("settings.world_pool.size", 0);
+        poolBudget = main.plugin().getConfig().getLong("settings.world_pool.budget", 5) * 1000000L;
+        if (poolSize > 0)
+            // Replenish the pool a little bit every tick.
+            poolTask = Bukkit.getScheduler().runTaskTimer(main.plugin(), this::replenishPool, 1L, 1L);
+        voidMargin = main.plugin().getConfig().getBoolean("settings.bounded_void", false)
+                ? main.plugin().getConfig().getInt("settings.bounded_void_margin", 2) : -1;
+        if (voidMargin >= 0)
+            main.plugin().getServer().getPluginManager().registerEvents(new VoidBoundary(), main.plugin());
+        preloader = new ChunkPreloader(main, main.plugin().getConfig().getInt("settings.preload_radius", 2),
+                main.plugin().getConfig().getLong("settings.preload_budget", 10));
+        main.plugin().getServer().getPluginManager().registerEvents(preloader, main.plugin());
+        deleter = new DeletionQueue(main, main.plugin().getConfig().getLong("settings.delete_rate", 32) * 1048576L);
+        sweepOrphans();
+    }
+
+    /**
+     * Round folders are deleted in the background, so if the
+     * server stopped before they were all deleted they will
+     * still be there. This queues any that were left behind.
+     * <p>
+     * Round folders are named after their 5-digit ID, and may
+     * have been left mid-staging or mid-deletion as well.
+     */
+    private void sweepOrphans() {
+        File[] folders = Bukkit.getWorldContainer().listFiles();
+        if (folders == null) return;
+        for (File folder : folders)
+            if (folder.isDirectory() && folder.getName().matches("\\d+(\\.staging|\\.deleting)?")
+                    && Bukkit.getWorld(folder.getName()) == null) {
+                main().plugin().log("Sweeping orphaned round folder " + folder.getName());
+                deleter.enqueue(folder);
+            }
+    }
+
+    /**
+     * Loads and pins the chunks around every spawn of a map
+     * over the next few ticks, so they are ready to be used
+     * by the time everyone is teleported in.
+     *
+     * @param map   The map about to be played.
+     * @param world The world the map is loaded as.
+     */
+    public void preloadSpawns(WarMap map, World world) {
+        if (map == null || world == null) return;
+        preloader.preload(map, world);
+    }
+
+    /**
+     * Stops preloading, and allows the server to
+     * unload the chunks around the spawns again.
+     */
+    public void releaseSpawns() {
+        preloader.release();
+    }
+
+    /**
+     * Returns how many old round folders are still
+     * waiting to be deleted in the background.
+     *
+     * @return The deletion queue depth.
+     */
+    public int getDeletionQueueDepth() {
+        return deleter.depth();
+    }
+
+    /**
+     * Creates a thread factory for background work.
+     * The threads are daemons so they never hold up a shutdown.
+     *
+     * @param name The name to give the threads.
+     * @return The thread factory.
+     */
+    static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Copies a map into its round folder on a background thread
+     * so it is ready by the time the match cycles. This should
+     * be called while a match is playing.
+     * <p>
+     * The map is copied into a temporary folder first and then
+     * renamed, so a half-copied map is never mistaken as ready.
+     *
+     * @param map The name of the map.
+     * @param ID  The 5-digit ID the map will be loaded as.
+     * @return The staging record, or null if staging is disabled.
+     */
+    public StagedMap stageMap(String map, long ID) {
+        if (!prestage && poolSize < 1) return null;
+        discardStale(); // The rotation may have changed since the last map was staged.
+        StagedMap existing = getStaged(map);
+        if (existing != null) return existing; // This map is already being staged.
+
+        StagedMap stage = new StagedMap(map, ID);
+        staged.put(ID, stage);
+        main().plugin().log("Pre-staging " + map + " to " + ID + "!");
+        stage.setFuture(stager.submit(() -> {
+            File temp = new File(ID + ".staging");
+            File dest = new File(ID + "");
+            try {
+                stage.setStatus(StagedMap.Status.COPYING);
+                delete(temp); // Get rid of anything left from an earlier attempt.
+                instantiate(new File(repo + File.separator + map), temp);
+                if (!temp.renameTo(dest))
+                    throw new IOException("Could not move " + temp + " to " + dest);
+                stage.setStatus(StagedMap.Status.READY);
+                return dest;
+            } catch (IOException e) {
+                if (stage.getStatus() != StagedMap.Status.CANCELLED) {
+                    stage.setStatus(StagedMap.Status.FAILED);
+                    e.printStackTrace();
+                }
+                delete(temp);
+                throw e;
+            }
+        }));
+        return stage;
+    }
+
+    /**
+     * Returns the staging record of a map, if it
+     * has been staged and not yet loaded.
+     *
+     * @param map The name of the map.
+     * @return The staging record, if any.
+     */
+    public StagedMap getStaged(String map) {
+        if (handedOff != null && handedOff.getMap().equals(map)) return handedOff;
+        for (StagedMap stage : staged.values())
+            if (stage.getMap().equals(map)) return stage;
+        return null;
+    }
+
+    /**
+     * Returns the staging record for a round ID, if any.
+     *
+     * @param ID The 5-digit ID.
+     * @return The staging record, if any.
+     */
+    public StagedMap getStaged(long ID) {
+        if (handedOff != null && handedOff.getRoundID() == ID) return handedOff;
+        return staged.get(ID);
+    }
+
+    /**
+     * Sets aside the staged or pooled copy of the map that is
+     * about to be played, so it is handed to the next round.
+     * This is called when cycling starts, since the rotation
+     * moves on before the map is loaded and the copy would
+     * otherwise no longer count as upcoming.
+     *
+     * @param map The name of the next map.
+     */
+    public void handOff(String map) {
+        StagedMap stage = map == null ? null : getStaged(map);
+        if (stage == null || stage == handedOff) return;
+        if (handedOff != null) discardStaged(handedOff); // The next map changed.
+        staged.remove(stage.getRoundID());
+        handedOff = stage;
+    }
+
+    /**
+     * Stops keeping track of a staged map, because
+     * it is being used or got rid of.
+     *
+     * @param stage The staging record.
+     */
+    private void release(StagedMap stage) {
+        staged.remove(stage.getRoundID());
+        if (handedOff == stage) handedOff = null;
+    }
+
+    /**
+     * Returns the round ID that should be used to load a map.
+     * If the map has been staged, the staged ID is returned
+     * so the copy can be skipped. Otherwise a new ID is made.
+     *
+     * @param map The name of the map.
+     * @return The round ID to load the map as.
+     */
+    public long nextRoundID(String map) {
+        StagedMap stage = getStaged(map);
+        return stage != null ? stage.getRoundID() : main().strings().generateID();
+    }
+
+    /**
+     * Keeps the pool of already-loaded worlds topped up.
+     * This is run every tick.
+     * <p>
+     * The budget is checked before each piece of work is started,
+     * not during it. Loading a world is a single call to Spigot
+     * that can't be split up, so a tick that loads one will usually
+     * run over the budget by itself. To keep that to one long tick
+     * at a time, a world is only loaded if nothing else was done
+     * this tick, and never more than one per tick.
+     * <p>
+     * While a match is playing, staged maps that are no longer
+     * upcoming (i.e. the rotation was changed) are got rid of.
+     */
+    private void replenishPool() {
+        WarMatch match = main().match();
+        if (match == null) return; // The match manager isn't ready yet.
+        long start = System.nanoTime();
+
+        if (match.getStatus() == WarMatch.Status.PLAYING) {
+            // The rotation only settles while playing, the next map is set aside before it moves on.
+            int before = staged.size();
+            discardStale();
+            if (staged.size() != before) return; // Unloading a world is enough work for one tick.
+        }
+
+        List<String> upcoming = match.getUpcomingMaps(poolSize);
+        for (String map : upcoming)
+            if (getStaged(map) == null) {
+                // Start copying the next map which isn't in the pool.
+                stageMap(map, main().strings().generateID());
+                break;
+            }
+
+        if (System.nanoTime() - start >= poolBudget) return; // Out of time, continue next tick.
+        for (StagedMap stage : staged.values()) {
+            if (stage.isReady() && upcoming.contains(stage.getMap())) {
+                long loading = System.nanoTime();
+                stage.setWorld(createWorld(stage.getMap(), stage.getRoundID()));
+                main().plugin().log("Pooled " + stage.getMap() + " as " + stage.getRoundID() + " in "
+                        + (System.nanoTime() - loading) / 1000000L + " ms!");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of worlds in the pool that
+     * are already loaded and waiting to be played.
+     *
+     * @return The number of loaded worlds in the pool.
+     */
+    public int getPooledWorlds() {
+        int count = 0;
+        for (StagedMap stage : staged.values())
+            if (stage.isLoaded()) count++;
+        if (handedOff != null && handedOff.isLoaded()) count++;
+        return count;
+    }
+
+    /**
+     * Stops all background work of this utility.
+     * Should be called when the plugin is disabled.
+     */
+    public void shutdown() {
+        if (poolTask != null) poolTask.cancel();
+        preloader.release();
+        for (StagedMap stage : staged.values())
+            stage.cancel();
+        if (handedOff != null) handedOff.cancel();
+        stager.shutdownNow();
+        copier.shutdown();
+        deleter.shutdown();
     }
 
     /**
@@ -58,76 +362,305 @@ public class WorldUtility extends WarModule {
      */
     public void loadMap(String map, long ID) {
         main().plugin().log("Now attempting to load " + map + " to " + ID + "!"); // Debug.
-        try {
-            File path = new File(repo + File.separator + map);
-            main().plugin().log("Maps repo path: " + path);
-            // Non-absolute paths will default to inside the plugin folder.
-            copyFolder(path, new File(ID + ""));
-            // Attempts to copy over the whole directory so it can be used.
-        } catch (IOException e) {
-            e.printStackTrace();
-            main().plugin().getServer().shutdown(); // Can't play without a world.
+        StagedMap pooled = getStaged(ID);
+        if (pooled != null && pooled.isLoaded() && pooled.getMap().equals(map)) {
+            // This world was loaded ahead of time, so it can be handed out straight away.
+            release(pooled);
+            main().plugin().log("Using pooled world for " + map + "!");
+            startRound(map, ID, pooled.getWorld());
+            return;
+        }
+        boolean claimed = claimStaged(map, ID);
+        if (handedOff != null)
+            discardStaged(handedOff); // Something other than the map that was set aside is being played.
+        if (!claimed) {
+            try {
+                File path = new File(repo + File.separator + map);
+                main().plugin().log("Maps repo path: " + path);
+                // Non-absolute paths will default to inside the plugin folder.
+                instantiate(path, new File(ID + ""));
+                // Attempts to copy over the whole directory so it can be used.
+            } catch (IOException e) {
+                e.printStackTrace();
+                main().plugin().getServer().shutdown(); // Can't play without a world.
+            }
         }
 
+        startRound(map, ID, createWorld(map, ID));
+    }
+
+    /**
+     * Records a round once its world has been loaded.
+     *
+     * @param map   The name of the map.
+     * @param ID    The 5-digit ID of the round.
+     * @param world The round's world.
+     */
+    private void startRound(String map, long ID, World world) {
+        RoundContext old = rounds.put(ID, new RoundContext(ID, map, main().cache().getMap(map),
+                main().match().getCurrentMode(), world));
+        if (old != null) old.invalidate();
+    }
+
+    /**
+     * Returns the record of a round whose world is loaded.
+     *
+     * @param ID The 5-digit ID of the round.
+     * @return The round, or null if its world isn't loaded.
+     */
+    public RoundContext getRound(long ID) {
+        return rounds.get(ID);
+    }
+
+    /**
+     * Loads a copied map folder as a Bukkit world.
+     *
+     * @param map The name of the map.
+     * @param ID  The 5-digit ID of the map's folder.
+     * @return The loaded world.
+     */
+    private World createWorld(String map, long ID) {
         // Calling upon the Spigot Gods to load our world.
-        WorldCreator wc = new WorldCreator(ID + "").generator(new NullChunkGenerator());
+        WorldCreator wc = new WorldCreator(ID + "").generator(createGenerator(map));
         World world = Bukkit.createWorld(wc);
         world.setAutoSave(false); // Since it won't ever be used after the match, don't autosave.
         WorldServer handle = ((CraftWorld) world).getHandle();
         handle.keepSpawnInMemory = false; // Prevent minor memory leak.
 
         world.getChunkAt(0, 0).load(); // Load the chunk so it's ready to be used!
+        return world;
+    }
+
+    /**
+     * Checks if a map was staged ahead of time, and if it
+     * has finished copying, makes it the world for this ID.
+     * <p>
+     * If staging hasn't started it is cancelled, and the caller
+     * falls back to copying the map synchronously. If it has
+     * started, it is waited on instead, since the background
+     * copy would otherwise be renamed on top of the caller's.
+     *
+     * @param map The name of the map.
+     * @param ID  The 5-digit ID that the world will be defined as.
+     * @return Whether or not a staged copy is in place.
+     */
+    private boolean claimStaged(String map, long ID) {
+        StagedMap stage = staged.get(ID);
+        if (stage == null || !stage.getMap().equals(map))
+            stage = getStaged(map); // The map may have been staged under a different ID.
+        if (stage == null) return false;
+        if (stage.isLoaded()) return false; // Pooled under another ID, leave it for its own turn.
+        release(stage);
+
+        if (!stage.isReady() && !awaitStaged(stage)) {
+            main().plugin().log("Staging of " + map + " did not finish, copying it now instead.");
+            return false;
+        }
+        if (stage.getRoundID() != ID && !new File(stage.getRoundID() + "").renameTo(new File(ID + ""))) {
+            main().plugin().log("Could not move staged " + map + " to " + ID + ", copying it now instead.");
+            discardFolder(new File(stage.getRoundID() + ""));
+            return false;
+        }
+        main().plugin().log("Using pre-staged copy of " + map + "!");
+        return true;
+    }
+
+    /**
+     * Waits for a staged map to finish copying. If the copy
+     * hasn't started yet it is cancelled instead, since the
+     * map can be copied just as quickly on this thread.
+     *
+     * @param stage The staging record.
+     * @return Whether or not the staged copy is ready.
+     */
+    private boolean awaitStaged(StagedMap stage) {
+        Future<File> future = stage.getFuture();
+        if (future == null || future.cancel(false)) {
+            stage.cancel();
+            return false; // It never started, so nothing will be written.
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    future.get();
+                    return stage.isReady();
+                } catch (InterruptedException e) {
+                    interrupted = true; // The copy must be finished before its folder can be used.
+                } catch (ExecutionException | CancellationException e) {
+                    return false; // The copy cleaned up after itself.
+                }
+            }
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets rid of a staged map that is no longer going to be
+     * played. Its world is unloaded if it was pooled, and its
+     * folder is deleted in the background.
+     *
+     * @param stage The staging record.
+     */
+    private void discardStaged(StagedMap stage) {
+        release(stage);
+        main().plugin().log("Discarding staged " + stage.getMap() + " (" + stage.getRoundID() + ")");
+        if (stage.isLoaded()) {
+            restoreMap(stage.getRoundID() + "");
+            return;
+        }
+        stage.cancel();
+        File dest = new File(stage.getRoundID() + "");
+        // The stager runs one task at a time, so this runs once the copy has stopped.
+        stager.execute(() -> discardFolder(dest));
+    }
+
+    /**
+     * Discards every staged map that isn't one of the
+     * next maps in the rotation, so maps that were staged
+     * before the rotation changed don't build up.
+     */
+    private void discardStale() {
+        WarMatch match = main().match();
+        if (match == null) return;
+        List<String> upcoming = match.getUpcomingMaps(Math.max(1, poolSize));
+        for (StagedMap stage : new ArrayList<>(staged.values()))
+            if (!upcoming.contains(stage.getMap())) discardStaged(stage);
+    }
+
+    /**
+     * Queues a round folder to be deleted, renaming it first
+     * so its ID is free straight away. This is safe to call
+     * from any thread, as it doesn't touch any worlds.
+     *
+     * @param folder The round folder.
+     */
+    private void discardFolder(File folder) {
+        if (!folder.exists()) return;
+        File deleting = new File(folder.getPath() + ".deleting");
+        deleter.enqueue(folder.renameTo(deleting) ? deleting : folder);
+    }
+
+    /**
+     * Makes a playable copy of a map's folder. If the map has
+     * been packed into an archive, it is extracted from that.
+     * Otherwise the map's folder is copied.
+     *
+     * @param src  Source directory.
+     * @param dest Destination directory.
+     * @throws java.io.IOException Thrown if an error occurs while trying to copy.
+     */
+    private void instantiate(File src, File dest) throws IOException {
+        File archive = new File(src.getPath() + MapArchive.EXTENSION);
+        if (archive.isFile()) {
+            try {
+                long start = System.nanoTime();
+                long bytes = MapArchive.extract(archive.toPath(), dest.toPath());
+                main().plugin().log("Extracted " + archive.getName() + " (" + bytes / 1048576L + " MB) in "
+                        + (System.nanoTime() - start) / 1000000L + " ms.");
+                return;
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                // If the archive is corrupted but the folder is still there, we can still play.
+                if (!src.isDirectory()) throw e;
+                main().plugin().log("Could not extract " + archive.getName() + ", copying the map folder instead.");
+                e.printStackTrace();
+            }
+        }
+        copyFolder(src, dest);
+    }
+
+    /**
+     * Returns a stamp of a map's files in the map repository.
+     * The stamp changes whenever the map is changed, so it
+     * can be used to tell if something cached is out of date.
+     *
+     * @param map The name of the map.
+     * @return The map's stamp.
+     */
+    public long getSourceStamp(String map) {
+        File src = new File(repo + File.separator + map);
+        File archive = new File(src.getPath() + MapArchive.EXTENSION);
+        if (archive.isFile()) return archive.lastModified() * 31 + archive.length();
+        long stamp = 17;
+        File[] regions = new File(src, "region").listFiles();
+        if (regions != null)
+            for (File region : regions)
+                stamp += (region.getName().hashCode() * 31L + region.lastModified()) * 31 + region.length();
+        return stamp;
+    }
+
+    /**
+     * Returns where something cached about a map is kept.
+     * Caches are kept in the plugin's folder, and not in
+     * the map repository, which may be shared.
+     *
+     * @param map       The name of the map.
+     * @param extension The kind of cache, i.e. ".plateau".
+     * @return The cache file.
+     */
+    public File getMapCache(String map, String extension) {
+        return new File(main().plugin().getDataFolder(), "cache" + File.separator + map + extension);
+    }
+
+    /**
+     * Packs a map in the map repository into an archive,
+     * which will then be used instead of the map's folder.
+     * Compression is set by settings.archive_compress.
+     *
+     * @param map The name of the map.
+     * @return The number of files packed.
+     * @throws IOException Thrown if an error occurs while trying to pack.
+     * @see MapArchive
+     */
+    public int packMap(String map) throws IOException {
+        File src = new File(repo + File.separator + map);
+        int files = MapArchive.pack(src.toPath(), new File(src.getPath() + MapArchive.EXTENSION).toPath(),
+                main().plugin().getConfig().getBoolean("settings.archive_compress", true));
+        main().plugin().log("Packed " + files + " files of " + map + " into an archive.");
+        return files;
     }
 
     /**
      * Once the source file and destination file have been
-     * determined, this procedure opens an input and output
-     * stream to transfer the data over 1024 bytes at a time.
+     * determined, this procedure hands the copy over to the
+     * map copier, which copies every file in parallel.
      *
      * @param src  Source directory.
      * @param dest Destination directory.
      * @throws java.io.IOException Thrown if an error occurs while trying to copy.
+     * @see MapCopier
      */
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     private void copyFolder(File src, File dest) throws IOException {
-        if (src.isDirectory()) {
-            // If this file is a directory, copy the files within this directory.
-            while (!dest.exists())
-                dest.mkdir();
-            String files[] = src.list();
-            for (String file : files != null ? files : new String[0])
-                copyFolder(new File(src, file), new File(dest, file));
-        } else {
-            // Otherwise copy this file.
-            InputStream in = new FileInputStream(src);
-            OutputStream out = new FileOutputStream(dest);
-            byte[] buffer = new byte[1024];
-            int length;
-            while ((length = in.read(buffer)) > 0) // While the number of bytes to transfer is more than zero, transfer!
-                out.write(buffer, 0, length);
-            in.close();
-            out.close();
-        }
+        copier.copy(src.toPath(), dest.toPath());
     }
 
     /**
      * Once a match has finished and cycled, the world file
      * should be destroyed as it is no longer needed and a
      * fresh copy is used when the same map is played again.
+     * <p>
+     * The world is unloaded straight away, but the folder is
+     * deleted in the background, at a limited rate.
      *
      * @param map The world to restore, using the 5-digit ID.
      */
     public void restoreMap(String map) {
+        try {
+            RoundContext round = rounds.remove(Long.parseLong(map));
+            if (round != null) round.invalidate(); // Nothing should use this world any more.
+        } catch (NumberFormatException e) {
+            // Not a round, so there is nothing to invalidate.
+        }
         if (Bukkit.getWorld(map) != null) {
             // If the world is still loaded, unload it forcibly and get rid of it.
             main().plugin().log("Unloading world " + map);
             forceUnloadWorld(Bukkit.getWorld(map));
         }
-        try {
-            delete(new File(map)); // Bye bye!
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        // Rename it first so the ID is free straight away, then delete it in the background.
+        discardFolder(new File(map)); // Bye bye!
     }
 
     /**
@@ -174,16 +707,106 @@ public class WorldUtility extends WarModule {
         FileUtils.forceDelete(path);
     }
 
+    /**
+     * Creates the void generator for a map's world. If the
+     * void is bounded and the map has a build boundary, the
+     * generator knows which chunks are outside of it.
+     *
+     * @param map The name of the map.
+     * @return The generator.
+     */
+    private NullChunkGenerator createGenerator(String map) {
+        WarMap warMap = voidMargin < 0 || main().cache() == null ? null : main().cache().getMap(map);
+        SerializedLocation[] boundary = warMap == null ? null : warMap.getBuildBoundary();
+        if (boundary == null) return new NullChunkGenerator();
+        return new NullChunkGenerator(((int) Math.floor(boundary[0].x()) >> 4) - voidMargin,
+                ((int) Math.floor(boundary[0].z()) >> 4) - voidMargin,
+                ((int) Math.floor(boundary[1].x()) >> 4) + voidMargin,
+                ((int) Math.floor(boundary[1].z()) >> 4) + voidMargin);
+    }
+
+    /**
+     * If the void is bounded, chunks outside of the map's
+     * build boundary are unloaded as soon as they load.
+     * They're empty anyway, so there's no point keeping them.
+     * <p>
+     * Chunks that a player can see are left alone, as they
+     * would only be sent to the player and loaded again. The
+     * server unloads them as normal once nobody can see them.
+     */
+    private class VoidBoundary implements Listener {
+
+        @EventHandler(priority = EventPriority.MONITOR)
+        public void onChunkLoad(ChunkLoadEvent event) {
+            if (!(event.getWorld().getGenerator() instanceof NullChunkGenerator)) return;
+            NullChunkGenerator generator = (NullChunkGenerator) event.getWorld().getGenerator();
+            int cx = event.getChunk().getX(), cz = event.getChunk().getZ();
+            if (!generator.isOutside(cx, cz)) return;
+            World world = event.getWorld();
+            // Chunks can't be unloaded while they are loading, so wait a tick.
+            Bukkit.getScheduler().runTask(main().plugin(), () -> {
+                if (world.isChunkLoaded(cx, cz) && !world.isChunkInUse(cx, cz))
+                    world.unloadChunk(cx, cz, false);
+            });
+        }
+    }
+
     /**
      * This class is a simple Minecraft world generator.
      * It generates nothing, as maps are built on air.
      * <p>
+     * Every chunk is the same empty chunk, so one is created
+     * per world and handed out every time instead of making
+     * a new one for every chunk that is generated.
+     * <p>
      * This is used when loading a map world with a generator.
      */
     private static class NullChunkGenerator extends ChunkGenerator {
 
-        public byte[] generate(World world, Random random, int cx, int cz) {
-            return new byte[65536];
+        private final boolean bounded; // Whether or not chunks outside the bounds are unloaded.
+        private final int minX, minZ, maxX, maxZ; // The chunk bounds, if bounded.
+        private ChunkData empty; // The shared empty chunk for this generator's world.
+
+        /**
+         * Creates an unbounded void generator.
+         */
+        NullChunkGenerator() {
+            this.bounded = false;
+            this.minX = this.minZ = this.maxX = this.maxZ = 0;
+        }
+
+        /**
+         * Creates a void generator bounded to an area of chunks.
+         *
+         * @param minX Lowest chunk X.
+         * @param minZ Lowest chunk Z.
+         * @param maxX Highest chunk X.
+         * @param maxZ Highest chunk Z.
+         */
+        NullChunkGenerator(int minX, int minZ, int maxX, int maxZ) {
+            this.bounded = true;
+            this.minX = minX;
+            this.minZ = minZ;
+            this.maxX = maxX;
+            this.maxZ = maxZ;
+        }
+
+        @Override
+        public ChunkData generateChunkData(World world, Random random, int cx, int cz, BiomeGrid biome) {
+            if (empty == null)
+                empty = createChunkData(world); // Nothing ever writes to it, so it can be shared.
+            return empty;
+        }
+
+        /**
+         * Returns whether or not a chunk is outside the bounds.
+         *
+         * @param cx Chunk X.
+         * @param cz Chunk Z.
+         * @return Whether it is outside the bounds.
+         */
+        boolean isOutside(int cx, int cz) {
+            return bounded && (cx < minX || cx > maxX || cz < minZ || cz > maxZ);
         }
 
         @Override